@@ -0,0 +1,89 @@
+package dows.masterchef.benchmark;
+
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.model.Counter;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.repository.RecipeRepository;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Sustitutos en memoria de MongoDB para los benchmarks: sólo implementan los métodos que usan RecipeService y
+// SequenceService; el resto lanza UnsupportedOperationException para que un cambio de ruta no pase desapercibido.
+final class InMemoryMongo {
+
+    private InMemoryMongo() {
+    }
+
+    static RecipeRepository recipes() {
+        Map<Long, Recipe> bySeq = new ConcurrentSkipListMap<>();
+        return (RecipeRepository) Proxy.newProxyInstance(RecipeRepository.class.getClassLoader(),
+                new Class<?>[] { RecipeRepository.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        Recipe r = (Recipe) args[0];
+                        bySeq.put(r.getSeq(), r);
+                        yield r;
+                    }
+                    case "insertUnordered" -> {
+                        @SuppressWarnings("unchecked") List<Recipe> batch = (List<Recipe>) args[0];
+                        batch.forEach(r -> bySeq.put(r.getSeq(), r));
+                        yield List.of();
+                    }
+                    case "findBySeq" -> Optional.ofNullable(bySeq.get((Long) args[0]));
+                    case "searchByIngredientTokens" -> {
+                        @SuppressWarnings("unchecked") List<String> tokens = (List<String>) args[0];
+                        yield bySeq.values().stream()
+                                .filter(r -> r.getIngredientTokens().containsAll(tokens))
+                                .map(RecipeSummary::of)
+                                .toList();
+                    }
+                    case "count" -> (long) bySeq.size();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryRecipeRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // Simula un servidor con latencia: cada llamada a target ocupa uno de los permisos de server durante roundTrip
+    // (el coste por documento de un insertMany no se simula)
+    static <T> T withLatency(T target, Class<T> type, Duration roundTrip, Semaphore server) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) { return method.invoke(target, args); }
+            server.acquireUninterruptibly();
+            try {
+                LockSupport.parkNanos(roundTrip.toNanos());
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            } finally {
+                server.release();
+            }
+        }));
+    }
+
+    // findAndModify con $inc sobre contadores en memoria
+    static MongoOperations counters() {
+        Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+        return (MongoOperations) Proxy.newProxyInstance(MongoOperations.class.getClassLoader(),
+                new Class<?>[] { MongoOperations.class }, (proxy, method, args) -> {
+                    if (!method.getName().equals("findAndModify") || args.length != 4) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    String name = ((org.springframework.data.mongodb.core.query.Query) args[0]).getQueryObject().getString("_id");
+                    long inc = ((Number) ((Update) args[1]).getUpdateObject().get("$inc", org.bson.Document.class).get("seq")).longValue();
+                    return new Counter(name, counters.computeIfAbsent(name, n -> new AtomicLong()).addAndGet(inc));
+                });
+    }
+}
@@ -0,0 +1,63 @@
+package dows.masterchef.benchmark;
+
+import dows.masterchef.search.IngredientIndex;
+import org.openjdk.jmh.annotations.*;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Búsqueda por ingrediente tolerante a erratas (by-ingredient?fuzzy=true) frente a la exacta sobre el mismo índice:
+// 100 000 recetas y un vocabulario de 20 000 tokens inventados con sílabas al estilo español (bastante más que el real)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngredientFuzzyBenchmark {
+
+    private static final String[] ONSETS = { "", "b", "c", "ch", "d", "f", "g", "j", "l", "ll", "m", "n", "p", "qu", "r", "rr", "s", "t", "v", "z", "br", "pl", "tr" };
+    private static final String[] VOWELS = { "a", "e", "i", "o", "u" };
+    private static final String[] CODAS = { "", "", "", "n", "s", "r", "l" };
+
+    private IngredientIndex index;
+    private String exact;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int s = 0, n = 2 + random.nextInt(3); s < n; s++) {
+                sb.append(ONSETS[random.nextInt(ONSETS.length)]).append(VOWELS[random.nextInt(VOWELS.length)]).append(CODAS[random.nextInt(CODAS.length)]);
+            }
+            vocabulary.add(sb.toString());
+        }
+        index = new IngredientIndex();
+        for (long seq = 1; seq <= 100_000; seq++) {
+            List<String> ingredients = new ArrayList<>();
+            for (int k = 0; k < 8; k++) { ingredients.add(vocabulary.get((int) Math.abs(random.nextGaussian() * vocabulary.size() / 4) % vocabulary.size())); }
+            index.put(seq, ingredients);
+        }
+        exact = vocabulary.get(0);
+    }
+
+    @Benchmark
+    public Roaring64Bitmap exact() {
+        return index.match(List.of(exact), null, null);
+    }
+
+    @Benchmark
+    public Roaring64Bitmap fuzzyExactWord() {
+        return index.fuzzy(exact);
+    }
+
+    @Benchmark
+    public Roaring64Bitmap fuzzyTypo() {
+        return index.fuzzy(exact.substring(1, 2) + exact.charAt(0) + exact.substring(2));
+    }
+}
@@ -0,0 +1,65 @@
+package dows.masterchef.benchmark;
+
+import dows.masterchef.search.IngredientIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Autocompletado de ingredientes (GET /ingredients/suggest) sobre 100 000 recetas con 5 000 nombres distintos,
+// y el coste que añade el trie a cada escritura
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngredientSuggestBenchmark {
+
+    private static final String[] WORDS = { "queso", "tomate", "cebolla", "pimiento", "harina", "aceite", "ajo", "perejil", "pollo", "arroz" };
+    private static final String[] QUALIFIERS = { "fresco", "rallado", "verde", "rojo", "de cabra", "integral", "picado", "seco", "tierno", "curado" };
+
+    private IngredientIndex index;
+    private List<List<String>> recipes;
+    private long nextSeq;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>();
+        for (String w : WORDS) {
+            for (String q : QUALIFIERS) {
+                for (int v = 0; v < 50; v++) { names.add(w + " " + q + (v == 0 ? "" : " " + v)); }
+            }
+        }
+        recipes = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            List<String> ingredients = new ArrayList<>();
+            for (int k = 0; k < 8; k++) { ingredients.add(names.get((int) Math.abs(random.nextGaussian() * names.size() / 4) % names.size())); }
+            recipes.add(ingredients);
+        }
+        index = new IngredientIndex();
+        for (long seq = 1; seq <= 100_000; seq++) { index.put(seq, recipes.get((int) (seq % recipes.size()))); }
+        nextSeq = 100_001;
+    }
+
+    @Benchmark
+    public List<IngredientIndex.Suggestion> suggestOneLetter() {
+        return index.suggest("q", 10);
+    }
+
+    @Benchmark
+    public List<IngredientIndex.Suggestion> suggestLongPrefix() {
+        return index.suggest("queso cur", 10);
+    }
+
+    // Alta seguida de borrado: mantiene el tamaño del índice estable entre iteraciones
+    @Benchmark
+    public void putAndRemove() {
+        long seq = nextSeq++;
+        index.put(seq, recipes.get((int) (seq % recipes.size())));
+        index.remove(seq);
+    }
+}
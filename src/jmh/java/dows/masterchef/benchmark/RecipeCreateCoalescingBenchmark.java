@@ -0,0 +1,60 @@
+package dows.masterchef.benchmark;
+
+import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.repository.RecipeRepository;
+import dows.masterchef.service.RecipeCache;
+import dows.masterchef.service.RecipeService;
+import dows.masterchef.service.RecipeStatsService;
+import dows.masterchef.service.RecipeWriteCoalescer;
+import dows.masterchef.service.SequenceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// RecipeService.create con 64 clientes concurrentes contra un MongoDB simulado de 1 ms por operación y 8 operaciones
+// a la vez: sin group commit cada alta cuesta dos operaciones (contador e insert); con él, dos por lote.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(64)
+public class RecipeCreateCoalescingBenchmark {
+
+    @Param({ "false", "true" })
+    boolean coalesce;
+
+    private RecipeService service;
+    private RecipeWriteCoalescer coalescer;
+    private RecipeInput input;
+
+    @Setup
+    public void setup() {
+        Semaphore server = new Semaphore(8);
+        Duration roundTrip = Duration.ofMillis(1);
+        RecipeRepository repo = InMemoryMongo.withLatency(InMemoryMongo.recipes(), RecipeRepository.class, roundTrip, server);
+        SequenceService sequences = new SequenceService(InMemoryMongo.withLatency(InMemoryMongo.counters(), MongoOperations.class, roundTrip, server));
+        RecipeStatsService stats = RecipeStatsService.disabled();
+        coalescer = coalesce
+                ? new RecipeWriteCoalescer(repo, sequences, stats, true, 256, Duration.ofMillis(2), 2, Duration.ofSeconds(10))
+                : RecipeWriteCoalescer.disabled();
+        service = new RecipeService(repo, sequences, List.of(), RecipeCache.disabled(), stats, 2, coalescer);
+        input = RecipeServiceBenchmark.input(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        coalescer.close();
+    }
+
+    @Benchmark
+    public Recipe create() {
+        return service.create(input);
+    }
+}
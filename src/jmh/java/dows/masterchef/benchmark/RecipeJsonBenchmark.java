@@ -0,0 +1,56 @@
+package dows.masterchef.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.search.Ingredients;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialización con Jackson de listas de Recipe, configurado como el ObjectMapper de Spring Boot
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeJsonBenchmark {
+
+    @Param({ "1", "50", "500" })
+    int size;
+
+    private ObjectMapper mapper;
+    private List<Recipe> recipes;
+
+    @Setup
+    public void setup() {
+        mapper = JsonMapper.builder().findAndAddModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        recipes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            RecipeInput in = RecipeServiceBenchmark.input(i);
+            Recipe r = new Recipe();
+            r.setId(Long.toHexString(0x6500000000000000L + i));
+            r.setSeq((long) i + 1);
+            r.setTitle(in.getTitle());
+            r.setIngredients(in.getIngredients());
+            r.setIngredientTokens(Ingredients.tokens(in.getIngredients()));
+            r.setSteps(in.getSteps());
+            r.setChefName(in.getChefName());
+            r.setAuthorType(in.getAuthorType());
+            r.setCreatedAt(Instant.now());
+            r.setUpdatedAt(Instant.now());
+            recipes.add(r);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(recipes);
+    }
+}
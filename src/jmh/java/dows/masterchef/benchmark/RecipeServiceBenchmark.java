@@ -0,0 +1,70 @@
+package dows.masterchef.benchmark;
+
+import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.service.RecipeCache;
+import dows.masterchef.service.RecipeService;
+import dows.masterchef.service.SequenceService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// create, findBySeq y searchByIngredient contra un repositorio en memoria: mide el coste propio del servicio
+// (normalización de ingredientes, caché, mapeo a resúmenes), no el de MongoDB.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeServiceBenchmark {
+
+    @Param({ "1000" })
+    int recipes;
+
+    @Param({ "false", "true" })
+    boolean cached;
+
+    private RecipeService service;
+    private RecipeInput input;
+
+    static RecipeInput input(int i) {
+        RecipeInput in = new RecipeInput();
+        in.setTitle("Receta " + i);
+        in.setIngredients(List.of("Harina de maíz", "Queso " + (i % 20 == 0 ? "manchego" : "blanco"), "Sal", "Agua tibia"));
+        in.setSteps(List.of("Mezclar", "Amasar", "Asar"));
+        in.setChefName("Carla");
+        in.setAuthorType(AuthorType.CHEF);
+        return in;
+    }
+
+    @Setup
+    public void setup() {
+        RecipeCache cache = cached ? new RecipeCache(recipes, Duration.ofMinutes(10)) : RecipeCache.disabled();
+        service = new RecipeService(InMemoryMongo.recipes(), new SequenceService(InMemoryMongo.counters()), List.of(cache), cache);
+        for (int i = 0; i < recipes; i++) {
+            service.create(input(i));
+        }
+        input = input(recipes);
+    }
+
+    @Benchmark
+    public Recipe create() {
+        return service.create(input);
+    }
+
+    @Benchmark
+    public Recipe findBySeq() {
+        return service.findBySeq(ThreadLocalRandom.current().nextLong(1, recipes + 1));
+    }
+
+    @Benchmark
+    public List<RecipeSummary> searchByIngredient() {
+        return service.searchByIngredient("queso manchego");
+    }
+}
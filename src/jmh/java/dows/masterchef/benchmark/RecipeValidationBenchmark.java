@@ -0,0 +1,53 @@
+package dows.masterchef.benchmark;
+
+import dows.masterchef.dto.RecipeInput;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Bean Validation de RecipeInput (lo que hace @Valid en cada alta/actualización y por elemento en /bulk)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeValidationBenchmark {
+
+    private ValidatorFactory factory;
+    private Validator validator;
+    private RecipeInput valid;
+    private RecipeInput invalid;
+
+    @Setup
+    public void setup() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        valid = RecipeServiceBenchmark.input(1);
+        invalid = RecipeServiceBenchmark.input(2);
+        invalid.setTitle(" ");
+        invalid.setIngredients(List.of("Harina", ""));
+        invalid.setAuthorType(null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<RecipeInput>> validInput() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<RecipeInput>> invalidInput() {
+        return validator.validate(invalid);
+    }
+}
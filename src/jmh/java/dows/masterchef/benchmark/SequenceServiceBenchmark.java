@@ -0,0 +1,36 @@
+package dows.masterchef.benchmark;
+
+import dows.masterchef.service.SequenceService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// GAP_FREE frente a BLOCK con contadores en memoria y 4 hilos compitiendo: mide la contención propia de cada
+// estrategia. Con MongoDB real la diferencia la marca además el número de findAndModify (1 por receta vs 1 por bloque).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class SequenceServiceBenchmark {
+
+    @Param({ "GAP_FREE", "BLOCK" })
+    SequenceService.Strategy strategy;
+
+    @Param({ "50" })
+    int blockSize;
+
+    private SequenceService sequences;
+
+    @Setup
+    public void setup() {
+        sequences = new SequenceService(InMemoryMongo.counters(), strategy, blockSize);
+    }
+
+    @Benchmark
+    public long next() {
+        return sequences.getNextSequence("recipes");
+    }
+}
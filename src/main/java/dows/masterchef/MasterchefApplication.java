@@ -1,7 +1,9 @@
 package dows.masterchef;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 @SpringBootApplication
+@EnableScheduling
 public class MasterchefApplication {
     public static void main(String[] args) {
         SpringApplication.run(MasterchefApplication.class, args);
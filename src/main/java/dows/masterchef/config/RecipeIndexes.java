@@ -0,0 +1,99 @@
+package dows.masterchef.config;
+import dows.masterchef.model.Recipe;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.stereotype.Component;
+// Índices que necesitan las consultas de RecipeRepository. Se crean (CREATE) o sólo se comprueban (VERIFY) al crear el
+// contexto, antes de que el servidor web acepte peticiones; si falta alguno se registra un error o el arranque falla.
+@Component
+public class RecipeIndexes implements SmartInitializingSingleton {
+    public enum Mode { CREATE, VERIFY }
+    private static final Logger log = LoggerFactory.getLogger(RecipeIndexes.class);
+    // Idioma del índice de texto (raíces y palabras vacías en español); las búsquedas $text usan el mismo
+    public static final String TEXT_LANGUAGE = "spanish";
+    // Comparación sin mayúsculas ni tildes (strength 1) de lookup(); consulta e índice deben llevar la misma. Reglas raíz
+    // de Unicode ("en" no añade ninguna): la variante "es" trata la ñ como letra propia y "jalapeno" no encontraría "jalapeño"
+    public static final Collation LOOKUP_COLLATION = Collation.of("en").strength(1);
+    static final List<IndexDefinition> DECLARED = List.of(
+            // findBySeq, findAllBySeqIn, findAllBySeqGreaterThan, streamAllByOrderBySeqAsc
+            new Index().on("seq", Sort.Direction.ASC).unique().named("seq_1"),
+            // findAllByAuthorTypeAndSeqGreaterThan, streamAllByAuthorType
+            new Index().on("authorType", Sort.Direction.ASC).on("seq", Sort.Direction.ASC).named("authorType_1_seq_1"),
+            // findAllByAuthorTypeAndSeasonAndSeqGreaterThan, streamAllByAuthorTypeAndSeason
+            new Index().on("authorType", Sort.Direction.ASC).on("season", Sort.Direction.ASC).on("seq", Sort.Direction.ASC).named("authorType_1_season_1_seq_1"),
+            // streamAllBySeason
+            new Index().on("season", Sort.Direction.ASC).on("seq", Sort.Direction.ASC).named("season_1_seq_1"),
+            // searchByIngredientTokens ($all + orden por seq)
+            new Index().on("ingredientTokens", Sort.Direction.ASC).on("seq", Sort.Direction.ASC).named("ingredientTokens_1_seq_1"),
+            // lookup por título, cocinero o ingrediente (igualdad o prefijo con LOOKUP_COLLATION + orden por seq)
+            new Index().on("title", Sort.Direction.ASC).on("seq", Sort.Direction.ASC).collation(LOOKUP_COLLATION).named("title_1_seq_1_ci"),
+            new Index().on("chefName", Sort.Direction.ASC).on("seq", Sort.Direction.ASC).collation(LOOKUP_COLLATION).named("chefName_1_seq_1_ci"),
+            new Index().on("ingredients", Sort.Direction.ASC).on("seq", Sort.Direction.ASC).collation(LOOKUP_COLLATION).named("ingredients_1_seq_1_ci"),
+            // searchText ($text ordenado por relevancia); sólo puede haber un índice de texto por colección
+            new TextIndexDefinition.TextIndexDefinitionBuilder().onField("title", 3F).onField("steps").onField("ingredients")
+                    .withDefaultLanguage(TEXT_LANGUAGE).named("recipes_text").build());
+    private final MongoOperations mongo;
+    private final Mode mode;
+    private final boolean failOnMissing;
+    public RecipeIndexes(MongoOperations mongo,
+                         @Value("${masterchef.indexes.mode:CREATE}") Mode mode,
+                         @Value("${masterchef.indexes.fail-on-missing:true}") boolean failOnMissing) {
+        this.mongo = mongo; this.mode = mode; this.failOnMissing = failOnMissing;
+    }
+    @Override
+    public void afterSingletonsInstantiated() { apply(); }
+    public List<String> apply() {
+        IndexOperations ops = mongo.indexOps(Recipe.class);
+        List<IndexDefinition> missing = missing(ops);
+        if (mode == Mode.CREATE && !missing.isEmpty()) {
+            missing.forEach(def -> log.info("creating index {} on recipes", name(def)));
+            missing.forEach(ops::ensureIndex);
+            missing = missing(ops);
+        }
+        List<String> names = missing.stream().map(RecipeIndexes::name).collect(Collectors.toList());
+        if (names.isEmpty()) {
+            log.info("recipes indexes verified: {}", DECLARED.stream().map(RecipeIndexes::name).collect(Collectors.toList()));
+        } else if (failOnMissing) {
+            throw new IllegalStateException("missing indexes on recipes: " + names);
+        } else {
+            log.error("MISSING INDEXES on recipes, queries will scan the collection: {}", names);
+        }
+        return names;
+    }
+    private static List<IndexDefinition> missing(IndexOperations ops) {
+        List<IndexInfo> existing = ops.getIndexInfo();
+        return DECLARED.stream().filter(def -> existing.stream().noneMatch(info -> matches(def, info))).collect(Collectors.toList());
+    }
+    // Coincide por nombre o por las mismas claves en el mismo orden (p. ej. el índice "seq" que creaba @Indexed).
+    // Un índice con collation sólo sirve a consultas con la misma: se exige el mismo locale y strength.
+    static boolean matches(IndexDefinition def, IndexInfo info) {
+        Document collation = (Document) def.getIndexOptions().get("collation");
+        if (collation != null && !info.getCollation().filter(c -> Objects.equals(c.get("locale"), collation.get("locale"))
+                && Objects.equals(c.get("strength"), collation.get("strength"))).isPresent()) { return false; }
+        if (name(def).equals(info.getName())) { return true; }
+        if (def instanceof TextIndexDefinition) {
+            return def.getIndexKeys().keySet().equals(info.getIndexFields().stream().filter(f -> f.isText()).map(f -> f.getKey()).collect(Collectors.toSet()));
+        }
+        if (Boolean.TRUE.equals(def.getIndexOptions().get("unique")) && !info.isUnique()) { return false; }
+        return keys(def.getIndexKeys()).equals(info.getIndexFields().stream()
+                .map(f -> f.getKey() + ":" + (f.getDirection() == Sort.Direction.DESC ? -1 : 1)).collect(Collectors.toList()));
+    }
+    private static List<String> keys(Document keys) {
+        return keys.entrySet().stream().map(e -> e.getKey() + ":" + e.getValue()).collect(Collectors.toList());
+    }
+    static String name(IndexDefinition def) { return def.getIndexOptions().getString("name"); }
+}
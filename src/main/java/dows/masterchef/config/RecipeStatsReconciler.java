@@ -0,0 +1,28 @@
+package dows.masterchef.config;
+import dows.masterchef.model.RecipeStats;
+import dows.masterchef.service.RecipeStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+// Al arrancar crea recipe_stats si aún no existe (recetas anteriores a los contadores) y lo rehace periódicamente
+// desde recipes para corregir cualquier desviación de los $inc
+@Component
+@Order(2)
+public class RecipeStatsReconciler implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(RecipeStatsReconciler.class);
+    private final RecipeStatsService stats;
+    public RecipeStatsReconciler(RecipeStatsService stats) { this.stats = stats; }
+    @Override
+    public void run(ApplicationArguments args) { if (!stats.exists()) { reconcile(); } }
+    @Scheduled(cron = "${masterchef.stats.reconcile-cron:0 30 4 * * *}")
+    public RecipeStats reconcile() {
+        long start = System.nanoTime();
+        RecipeStats rebuilt = stats.reconcile();
+        log.info("recipe stats reconciled: {} recipes in {} ms", rebuilt.getTotal(), (System.nanoTime() - start) / 1_000_000);
+        return rebuilt;
+    }
+}
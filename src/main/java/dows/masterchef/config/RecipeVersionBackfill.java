@@ -0,0 +1,26 @@
+package dows.masterchef.config;
+import dows.masterchef.model.Recipe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+// Recetas guardadas antes de @Version: con version null Spring Data trataría el save como un alta (clave duplicada).
+// Un único updateMany las deja en la versión 0 al crear el contexto, antes de que el servidor web acepte peticiones.
+@Component
+public class RecipeVersionBackfill implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(RecipeVersionBackfill.class);
+    private final MongoOperations mongo;
+    public RecipeVersionBackfill(MongoOperations mongo) { this.mongo = mongo; }
+    @Override
+    public void afterSingletonsInstantiated() { backfill(); }
+    public long backfill() {
+        long updated = mongo.updateMulti(new Query(Criteria.where("version").exists(false)), new Update().set("version", 0L), Recipe.class)
+                .getModifiedCount();
+        if (updated > 0) { log.info("version initialized for {} recipes", updated); }
+        return updated;
+    }
+}
@@ -0,0 +1,68 @@
+package dows.masterchef.controller;
+import dows.masterchef.dto.RecipeBatch;
+import dows.masterchef.dto.RecipePage;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.model.Recipe;
+import java.nio.charset.StandardCharsets;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+// ETags fuertes: la misma etiqueta implica el mismo JSON. Con If-None-Match coincidente Spring responde 304
+// a partir de las cabeceras del ResponseEntity, sin serializar el cuerpo.
+final class ETags {
+    private ETags() { }
+    // "seq-version": @Version cambia con cada escritura (save, $inc en PATCH); null en documentos sin versión
+    static String of(Recipe r) {
+        return r.getVersion() == null ? null : "\"" + r.getSeq() + "-" + r.getVersion() + "\"";
+    }
+    // Derivada del contenido de la página (los mismos campos que se serializan), no de un contador global:
+    // sigue siendo correcta con varias instancias y no añade escrituras a cada alta/modificación/borrado
+    static String of(RecipePage<RecipeSummary> page) {
+        StringBuilder sb = new StringBuilder();
+        for (RecipeSummary s : page.getItems()) {
+            sb.append(s.getSeq()).append('\u0000').append(s.getTitle()).append('\u0000').append(s.getChefName()).append('\u0000')
+                    .append(s.getAuthorType()).append('\u0000').append(s.getSeason()).append('\u0001');
+        }
+        sb.append(page.getNextCursor());
+        return "\"" + DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+    // Las versiones de las recetas devueltas y los seq que faltan; null si alguna receta no tiene versión
+    static String of(RecipeBatch batch) {
+        StringBuilder sb = new StringBuilder();
+        for (Recipe r : batch.getItems()) {
+            if (r.getVersion() == null) { return null; }
+            sb.append(r.getSeq()).append('-').append(r.getVersion()).append(',');
+        }
+        sb.append('/').append(batch.getMissing());
+        return "\"" + DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+    // Versión que exige If-Match en PUT/PATCH/DELETE; null si no hay cabecera o es "*". Una etiqueta débil,
+    // de otra receta o mal formada no puede coincidir nunca: 412.
+    static Long expectedVersion(long seq, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) { return null; }
+        String tag = ifMatch.trim();
+        String prefix = "\"" + seq + "-";
+        if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+            try {
+                return Long.valueOf(tag.substring(prefix.length(), tag.length() - 1));
+            } catch (NumberFormatException ex) {
+                // cae al 412
+            }
+        }
+        throw new ApiException(412, "recipe version does not match If-Match");
+    }
+    static ResponseEntity<Recipe> tagged(Recipe r) {
+        String etag = of(r);
+        if (etag == null) { return ResponseEntity.ok(r); }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag);
+        if (r.getUpdatedAt() != null) { ok.lastModified(r.getUpdatedAt()); }
+        return ok.body(r);
+    }
+    static ResponseEntity<RecipePage<RecipeSummary>> tagged(RecipePage<RecipeSummary> page) {
+        return ResponseEntity.ok().eTag(of(page)).body(page);
+    }
+    static ResponseEntity<RecipeBatch> tagged(RecipeBatch batch) {
+        String etag = of(batch);
+        return etag == null ? ResponseEntity.ok(batch) : ResponseEntity.ok().eTag(etag).body(batch);
+    }
+}
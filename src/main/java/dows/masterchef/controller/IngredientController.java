@@ -0,0 +1,19 @@
+package dows.masterchef.controller;
+import dows.masterchef.search.IngredientIndex;
+import dows.masterchef.service.RecipeSearchService;
+import java.util.List;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+// Sin tipos de Servlet: sirve igual con el perfil "reactive"
+@RestController
+@RequestMapping("/api/v1/ingredients")
+public class IngredientController {
+    private final RecipeSearchService searchService;
+    public IngredientController(RecipeSearchService searchService) { this.searchService = searchService; }
+    @GetMapping("/suggest") public List<IngredientIndex.Suggestion> suggest(@RequestParam(required = false) String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return searchService.suggestIngredients(prefix, limit);
+    }
+}
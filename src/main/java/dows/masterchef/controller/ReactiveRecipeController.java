@@ -0,0 +1,62 @@
+package dows.masterchef.controller;
+import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.dto.RecipePage;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.model.RecipeStats;
+import dows.masterchef.service.ReactiveRecipeService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+// Mismas rutas que RecipeController, servidas por WebFlux con el perfil "reactive"
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/recipes")
+public class ReactiveRecipeController {
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    private final ReactiveRecipeService service;
+    public ReactiveRecipeController(ReactiveRecipeService service) { this.service = service; }
+    @PostMapping @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Recipe> create(@Valid @RequestBody RecipeInput in) { return service.create(in); }
+    @PostMapping("/viewer") @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Recipe> createViewer(@Valid @RequestBody RecipeInput in) { in.setAuthorType(AuthorType.VIEWER); return service.create(in); }
+    @PostMapping("/participant") @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Recipe> createParticipant(@Valid @RequestBody RecipeInput in) { in.setAuthorType(AuthorType.PARTICIPANT); return service.create(in); }
+    @PostMapping("/chef") @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Recipe> createChef(@Valid @RequestBody RecipeInput in) { in.setAuthorType(AuthorType.CHEF); return service.create(in); }
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Mono<ResponseEntity<Flux<RecipeSummary>>> all(@RequestParam(required = false) String after, @RequestParam(required = false) Integer limit) {
+        return limit == null ? stream(service.findAll(after)) : page(service.findAllPage(after, limit));
+    }
+    @GetMapping("/stats") public Mono<RecipeStats> stats() { return service.stats(); }
+    @GetMapping("/{seq}") public Mono<Recipe> bySeq(@PathVariable long seq) { return service.findBySeq(seq); }
+    @GetMapping(value = "/type/{type}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Mono<ResponseEntity<Flux<RecipeSummary>>> byType(@PathVariable AuthorType type, @RequestParam(required = false) String after,
+                                                            @RequestParam(required = false) Integer limit) {
+        return limit == null ? stream(service.byType(type, after)) : page(service.byTypePage(type, after, limit));
+    }
+    @GetMapping(value = "/season/{season}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Mono<ResponseEntity<Flux<RecipeSummary>>> bySeason(@PathVariable int season, @RequestParam(required = false) String after,
+                                                              @RequestParam(required = false) Integer limit) {
+        return limit == null ? stream(service.bySeason(season, after)) : page(service.bySeasonPage(season, after, limit));
+    }
+    private static Mono<ResponseEntity<Flux<RecipeSummary>>> stream(Flux<RecipeSummary> items) { return Mono.just(ResponseEntity.ok(items)); }
+    // El cuerpo sigue siendo la lista de resúmenes (array JSON o NDJSON); el cursor de la página siguiente va en NEXT_CURSOR
+    private static Mono<ResponseEntity<Flux<RecipeSummary>>> page(Mono<RecipePage<RecipeSummary>> page) {
+        return page.map(p -> {
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (p.getNextCursor() != null) { ok.header(NEXT_CURSOR, p.getNextCursor()); }
+            return ok.body(Flux.fromIterable(p.getItems()));
+        });
+    }
+    @GetMapping(value = "/search/by-ingredient", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<RecipeSummary> search(@RequestParam String ingredient) { return service.searchByIngredient(ingredient); }
+    @PutMapping("/{seq}") public Mono<Recipe> update(@PathVariable long seq, @Valid @RequestBody RecipeInput in) { return service.update(seq, in); }
+    @DeleteMapping("/{seq}") @ResponseStatus(HttpStatus.NO_CONTENT) public Mono<Void> delete(@PathVariable long seq) { return service.delete(seq); }
+}
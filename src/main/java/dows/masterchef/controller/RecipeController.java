@@ -1,17 +1,39 @@
 package dows.masterchef.controller;
+import dows.masterchef.dto.BulkItemResult;
+import dows.masterchef.dto.RecipeBatch;
+import dows.masterchef.dto.PantryMatch;
 import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.dto.RecipePage;
+import dows.masterchef.dto.RecipePatch;
+import dows.masterchef.dto.RecipeSummary;
 import dows.masterchef.model.AuthorType;
 import dows.masterchef.model.Recipe;
+import dows.masterchef.model.RecipeStats;
+import dows.masterchef.service.RecipeBulkService;
+import dows.masterchef.service.RecipeExportService;
+import dows.masterchef.service.RecipeSearchService;
 import dows.masterchef.service.RecipeService;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
+import java.util.Map;
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/recipes")
 public class RecipeController {
     private final RecipeService service;
-    public RecipeController(RecipeService service) { this.service = service; }
+    private final RecipeExportService exportService;
+    private final RecipeSearchService searchService;
+    private final RecipeBulkService bulkService;
+    public RecipeController(RecipeService service, RecipeExportService exportService, RecipeSearchService searchService, RecipeBulkService bulkService) {
+        this.service = service; this.exportService = exportService; this.searchService = searchService; this.bulkService = bulkService;
+    }
     @PostMapping @ResponseStatus(HttpStatus.CREATED)
     public Recipe create(@Valid @RequestBody RecipeInput in) { return service.create(in); }
     @PostMapping("/viewer") @ResponseStatus(HttpStatus.CREATED)
@@ -20,11 +42,69 @@ public class RecipeController {
     public Recipe createParticipant(@Valid @RequestBody RecipeInput in) { in.setAuthorType(AuthorType.PARTICIPANT); return service.create(in); }
     @PostMapping("/chef") @ResponseStatus(HttpStatus.CREATED)
     public Recipe createChef(@Valid @RequestBody RecipeInput in) { in.setAuthorType(AuthorType.CHEF); return service.create(in); }
-    @GetMapping public List<Recipe> all() { return service.findAll(); }
-    @GetMapping("/{seq}") public Recipe bySeq(@PathVariable long seq) { return service.findBySeq(seq); }
-    @GetMapping("/type/{type}") public List<Recipe> byType(@PathVariable AuthorType type) { return service.byType(type); }
-    @GetMapping("/season/{season}") public List<Recipe> bySeason(@PathVariable int season) { return service.bySeason(season); }
-    @GetMapping("/search/by-ingredient") public List<Recipe> search(@RequestParam String ingredient) { return service.searchByIngredient(ingredient); }
-    @PutMapping("/{seq}") public Recipe update(@PathVariable long seq, @Valid @RequestBody RecipeInput in) { return service.update(seq, in); }
-    @DeleteMapping("/{seq}") @ResponseStatus(HttpStatus.NO_CONTENT) public void delete(@PathVariable long seq) { service.delete(seq); }
+    // Cada elemento se valida por separado: la respuesta trae el resultado de cada uno en el mismo orden
+    @PostMapping("/bulk") public List<BulkItemResult> createBulk(@RequestBody List<RecipeInput> in) { return bulkService.createAll(in); }
+    // GET de recetas y listados: ETag (y Last-Modified en /{seq}); If-None-Match coincidente -> 304 sin cuerpo
+    @GetMapping public ResponseEntity<RecipePage<RecipeSummary>> all(@RequestParam(required = false) String after, @RequestParam(required = false) Integer limit) {
+        return ETags.tagged(service.findAll(after, limit));
+    }
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) AuthorType authorType, @RequestParam(required = false) Integer season) {
+        StreamingResponseBody body = out -> exportService.exportNdjson(authorType, season, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    @GetMapping("/cache/stats") public Map<String, Object> cacheStats() { return service.cacheStats(); }
+    // Contadores materializados: una lectura por _id, no recorre recipes
+    @GetMapping("/stats") public RecipeStats stats() { return service.stats(); }
+    @PostMapping("/stats/reconcile") public RecipeStats reconcileStats() { return service.reconcileStats(); }
+    // findBySeq pasa por la caché: un 304 de una receta cacheada no consulta Mongo
+    // ?seqs=1,5,9: varias recetas con una sola consulta (las que no estén en caché) en vez de N GET /{seq}
+    @GetMapping(params = "seqs") public ResponseEntity<RecipeBatch> bySeqs(@RequestParam List<Long> seqs) { return ETags.tagged(service.findAllBySeq(seqs)); }
+    @GetMapping("/{seq}") public ResponseEntity<Recipe> bySeq(@PathVariable long seq) { return ETags.tagged(service.findBySeq(seq)); }
+    @GetMapping("/type/{type}") public ResponseEntity<RecipePage<RecipeSummary>> byType(@PathVariable AuthorType type,
+            @RequestParam(required = false) String after, @RequestParam(required = false) Integer limit) {
+        return ETags.tagged(service.byType(type, after, limit));
+    }
+    @GetMapping("/season/{season}") public ResponseEntity<RecipePage<RecipeSummary>> bySeason(@PathVariable int season,
+            @RequestParam(required = false) String after, @RequestParam(required = false) Integer limit) {
+        return ETags.tagged(service.bySeason(season, after, limit));
+    }
+    @GetMapping("/search/by-ingredient") public List<RecipeSummary> search(@RequestParam String ingredient,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        return fuzzy ? searchService.fuzzyByIngredient(ingredient) : service.searchByIngredient(ingredient);
+    }
+    @GetMapping("/search/lookup") public RecipePage<RecipeSummary> lookup(@RequestParam(required = false) String title,
+            @RequestParam(required = false) String chefName, @RequestParam(required = false) String ingredient,
+            @RequestParam(defaultValue = "false") boolean prefix, @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return service.lookup(title, chefName, ingredient, prefix, after, limit);
+    }
+    @GetMapping("/search/by-ingredients") public RecipePage<RecipeSummary> searchByIngredients(@RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any, @RequestParam(required = false) List<String> none,
+            @RequestParam(required = false) String after, @RequestParam(required = false) Integer limit) {
+        return searchService.byIngredients(all, any, none, after, limit);
+    }
+    @GetMapping("/search/text") public RecipePage<RecipeSummary> searchText(@RequestParam(required = false) String q,
+            @RequestParam(required = false) String after, @RequestParam(required = false) Integer limit) {
+        return searchService.text(q, after, limit);
+    }
+    @GetMapping("/search/pantry") public List<PantryMatch> pantry(@RequestParam List<String> have,
+            @RequestParam(defaultValue = "0") int maxMissing, @RequestParam(required = false) Integer limit) {
+        return searchService.pantry(have, maxMissing, limit);
+    }
+    // If-Match opcional con el ETag de GET /{seq}: si la receta cambió entretanto, 412; la respuesta trae el ETag nuevo
+    @PutMapping("/{seq}") public ResponseEntity<Recipe> update(@PathVariable long seq, @Valid @RequestBody RecipeInput in,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ETags.tagged(service.update(seq, in, ETags.expectedVersion(seq, ifMatch)));
+    }
+    @PatchMapping("/{seq}") public ResponseEntity<Recipe> patch(@PathVariable long seq, @Valid @RequestBody RecipePatch patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ETags.tagged(service.patch(seq, patch, ETags.expectedVersion(seq, ifMatch)));
+    }
+    @DeleteMapping("/{seq}") @ResponseStatus(HttpStatus.NO_CONTENT) public void delete(@PathVariable long seq,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        service.delete(seq, ETags.expectedVersion(seq, ifMatch));
+    }
+    @DeleteMapping(params = "seqs") public Map<String, Long> deleteBulk(@RequestParam List<Long> seqs) { return Map.of("deleted", bulkService.deleteAll(seqs)); }
+    @DeleteMapping("/season/{season}") public Map<String, Long> deleteSeason(@PathVariable int season) { return Map.of("deleted", bulkService.deleteSeason(season)); }
 }
@@ -0,0 +1,16 @@
+package dows.masterchef.dto;
+public class BulkItemResult {
+    private final int index;
+    private final int status;
+    private final Long seq;
+    private final String message;
+    public BulkItemResult(int index, int status, Long seq, String message) {
+        this.index = index; this.status = status; this.seq = seq; this.message = message;
+    }
+    public static BulkItemResult created(int index, long seq) { return new BulkItemResult(index, 201, Long.valueOf(seq), null); }
+    public static BulkItemResult failed(int index, int status, String message) { return new BulkItemResult(index, status, null, message); }
+    public int getIndex() { return index; }
+    public int getStatus() { return status; }
+    public Long getSeq() { return seq; }
+    public String getMessage() { return message; }
+}
@@ -0,0 +1,13 @@
+package dows.masterchef.dto;
+import java.util.List;
+public class PantryMatch {
+    private final RecipeSummary recipe;
+    private final int missing;
+    private final List<String> missingIngredients;
+    public PantryMatch(RecipeSummary recipe, int missing, List<String> missingIngredients) {
+        this.recipe = recipe; this.missing = missing; this.missingIngredients = missingIngredients;
+    }
+    public RecipeSummary getRecipe() { return recipe; }
+    public int getMissing() { return missing; }
+    public List<String> getMissingIngredients() { return missingIngredients; }
+}
@@ -0,0 +1,12 @@
+package dows.masterchef.dto;
+import dows.masterchef.model.Recipe;
+import java.util.List;
+// Recetas pedidas por seq (GET /api/v1/recipes?seqs=) en el orden de la petición, y los seq que no existen
+public class RecipeBatch {
+    public static final int MAX_SEQS = RecipePage.MAX_SIZE;
+    private final List<Recipe> items;
+    private final List<Long> missing;
+    public RecipeBatch(List<Recipe> items, List<Long> missing) { this.items = items; this.missing = missing; }
+    public List<Recipe> getItems() { return items; }
+    public List<Long> getMissing() { return missing; }
+}
@@ -0,0 +1,31 @@
+package dows.masterchef.dto;
+import dows.masterchef.exception.ApiException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+// Página por keyset sobre seq: nextCursor es opaco para el cliente y se reenvía como ?after=
+public class RecipePage<T> {
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+    private final List<T> items;
+    private final String nextCursor;
+    public RecipePage(List<T> items, String nextCursor) { this.items = items; this.nextCursor = nextCursor; }
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public static int pageSize(Integer limit) {
+        if (limit == null) { return DEFAULT_SIZE; }
+        if (limit < 1 || limit > MAX_SIZE) { throw new ApiException(400, "limit must be between 1 and " + MAX_SIZE); }
+        return limit;
+    }
+    public static String encodeCursor(long seq) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(seq).getBytes(StandardCharsets.UTF_8));
+    }
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) { return 0L; }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException ex) {
+            throw new ApiException(400, "invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dows.masterchef.dto;
+import java.util.List;
+import dows.masterchef.model.AuthorType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+// Cuerpo de PATCH: los campos ausentes (null) no se modifican; los presentes siguen las reglas de RecipeInput
+public class RecipePatch {
+    private static final String NOT_BLANK = "(?s).*\\S.*";
+    @Pattern(regexp = NOT_BLANK, message = "must not be blank") private String title;
+    @Size(min = 1) private List<@NotBlank String> ingredients;
+    @Size(min = 1) private List<@NotBlank String> steps;
+    @Pattern(regexp = NOT_BLANK, message = "must not be blank") private String chefName;
+    private AuthorType authorType;
+    private Integer season;
+    public boolean isEmpty() {
+        return title == null && ingredients == null && steps == null && chefName == null && authorType == null && season == null;
+    }
+    public String getTitle() { return title; } public void setTitle(String title) { this.title = title; }
+    public List<String> getIngredients() { return ingredients; } public void setIngredients(List<String> ingredients) { this.ingredients = ingredients; }
+    public List<String> getSteps() { return steps; } public void setSteps(List<String> steps) { this.steps = steps; }
+    public String getChefName() { return chefName; } public void setChefName(String chefName) { this.chefName = chefName; }
+    public AuthorType getAuthorType() { return authorType; } public void setAuthorType(AuthorType authorType) { this.authorType = authorType; }
+    public Integer getSeason() { return season; } public void setSeason(Integer season) { this.season = season; }
+}
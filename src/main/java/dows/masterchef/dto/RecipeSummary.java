@@ -0,0 +1,22 @@
+package dows.masterchef.dto;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+// Proyección para listados: Spring Data sólo pide a Mongo estos campos (ni steps ni ingredients)
+public class RecipeSummary {
+    private final Long seq;
+    private final String title;
+    private final String chefName;
+    private final AuthorType authorType;
+    private final Integer season;
+    public RecipeSummary(Long seq, String title, String chefName, AuthorType authorType, Integer season) {
+        this.seq = seq; this.title = title; this.chefName = chefName; this.authorType = authorType; this.season = season;
+    }
+    public static RecipeSummary of(Recipe r) {
+        return new RecipeSummary(r.getSeq(), r.getTitle(), r.getChefName(), r.getAuthorType(), r.getSeason());
+    }
+    public Long getSeq() { return seq; }
+    public String getTitle() { return title; }
+    public String getChefName() { return chefName; }
+    public AuthorType getAuthorType() { return authorType; }
+    public Integer getSeason() { return season; }
+}
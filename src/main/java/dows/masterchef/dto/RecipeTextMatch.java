@@ -0,0 +1,17 @@
+package dows.masterchef.dto;
+import dows.masterchef.model.AuthorType;
+// Resultado de la búsqueda de texto: campos del resumen más la relevancia ($meta textScore), que forma parte del cursor
+public class RecipeTextMatch {
+    private final Long seq;
+    private final String title;
+    private final String chefName;
+    private final AuthorType authorType;
+    private final Integer season;
+    private final double score;
+    public RecipeTextMatch(Long seq, String title, String chefName, AuthorType authorType, Integer season, double score) {
+        this.seq = seq; this.title = title; this.chefName = chefName; this.authorType = authorType; this.season = season; this.score = score;
+    }
+    public RecipeSummary summary() { return new RecipeSummary(seq, title, chefName, authorType, season); }
+    public Long getSeq() { return seq; }
+    public double getScore() { return score; }
+}
@@ -1,26 +1,56 @@
 package dows.masterchef.exception;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    // masterchef.api.errors{status, type}: errores devueltos al cliente (http.server.requests los etiqueta como exception=none)
+    private final MeterRegistry registry;
+    public GlobalExceptionHandler() { this(Metrics.globalRegistry); }
+    @Autowired
+    public GlobalExceptionHandler(MeterRegistry registry) { this.registry = registry; }
+    private void count(int status, String type) {
+        Counter.builder("masterchef.api.errors").tag("status", String.valueOf(status)).tag("type", type).register(registry).increment();
+    }
     @ExceptionHandler(ApiException.class)
     public ResponseEntity<Map<String, Object>> handleApi(ApiException ex) {
+        count(ex.getStatus(), "api");
         Map<String, Object> body = new HashMap<>();
         body.put("message", ex.getMessage());
         return ResponseEntity.status(ex.getStatus()).body(body);
     }
+    // Escrituras concurrentes sobre la misma versión que no se resolvieron en el servicio (p. ej. modo reactivo)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleConflict(OptimisticLockingFailureException ex) {
+        return handleApi(new ApiException(409, "recipe was modified concurrently"));
+    }
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex) {
+        return validationFailed(ex.getBindingResult().getFieldErrors());
+    }
+    // Equivalente de WebFlux (perfil "reactive")
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, Object>> handleReactiveValidation(WebExchangeBindException ex) {
+        return validationFailed(ex.getBindingResult().getFieldErrors());
+    }
+    private ResponseEntity<Map<String, Object>> validationFailed(List<FieldError> errors) {
+        count(HttpStatus.BAD_REQUEST.value(), "validation");
         Map<String, Object> body = new HashMap<>();
         body.put("message", "Validation failed");
-        body.put("details", ex.getBindingResult().getFieldErrors().stream()
+        body.put("details", errors.stream()
                 .collect(Collectors.toMap(FieldError::getField, FieldError::getDefaultMessage, (a,b)->a)));
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
     }
@@ -0,0 +1,24 @@
+package dows.masterchef.model;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+// Contadores materializados de recipes en un único documento (_id "recipes"); bySeason sólo cuenta participantes,
+// igual que GET /season/{season}
+@Document(collection = "recipe_stats")
+public class RecipeStats {
+    @Id @JsonIgnore private String id;
+    private long total;
+    private Map<String, Long> byAuthorType = new LinkedHashMap<>();
+    private Map<String, Long> bySeason = new LinkedHashMap<>();
+    private Instant reconciledAt;
+    public RecipeStats() {}
+    public RecipeStats(String id) { this.id = id; }
+    public String getId() { return id; } public void setId(String id) { this.id = id; }
+    public long getTotal() { return total; } public void setTotal(long total) { this.total = total; }
+    public Map<String, Long> getByAuthorType() { return byAuthorType; } public void setByAuthorType(Map<String, Long> byAuthorType) { this.byAuthorType = byAuthorType; }
+    public Map<String, Long> getBySeason() { return bySeason; } public void setBySeason(Map<String, Long> bySeason) { this.bySeason = bySeason; }
+    public Instant getReconciledAt() { return reconciledAt; } public void setReconciledAt(Instant reconciledAt) { this.reconciledAt = reconciledAt; }
+}
@@ -0,0 +1,22 @@
+package dows.masterchef.repository;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+// Versión reactiva de RecipeRepository para el perfil "reactive"; mismas consultas e índices
+public interface ReactiveRecipeRepository extends ReactiveMongoRepository<Recipe, String> {
+    Mono<Recipe> findBySeq(Long seq);
+    // findOneAndDelete: devuelve el authorType y season de la receta borrada (vacío si no existía)
+    @Query(value = "{ seq: ?0 }", fields = RecipeRepository.CLASSIFICATION_FIELDS, delete = true)
+    Mono<Recipe> deleteBySeq(Long seq);
+    Flux<RecipeSummary> findAllBySeqGreaterThanOrderBySeqAsc(Long after, Limit limit);
+    Flux<RecipeSummary> findAllByAuthorTypeAndSeqGreaterThanOrderBySeqAsc(AuthorType type, Long after, Limit limit);
+    Flux<RecipeSummary> findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(AuthorType type, Integer season, Long after, Limit limit);
+    @Query(value = "{ ingredientTokens: { $all: ?0 } }", sort = "{ seq: 1 }", fields = RecipeRepository.SUMMARY_FIELDS)
+    Flux<RecipeSummary> searchByIngredientTokens(List<String> tokens);
+}
@@ -1,15 +1,38 @@
 package dows.masterchef.repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import dows.masterchef.dto.RecipeSummary;
 import dows.masterchef.model.AuthorType;
 import dows.masterchef.model.Recipe;
-public interface RecipeRepository extends MongoRepository<Recipe, String> {
+public interface RecipeRepository extends MongoRepository<Recipe, String>, RecipeRepositoryCustom {
+    String SUMMARY_FIELDS = "{ seq: 1, title: 1, chefName: 1, authorType: 1, season: 1 }";
+    String CLASSIFICATION_FIELDS = "{ authorType: 1, season: 1 }";
     Optional<Recipe> findBySeq(Long seq);
-    List<Recipe> findAllByAuthorTypeOrderBySeqAsc(AuthorType type);
-    List<Recipe> findAllByAuthorTypeAndSeasonOrderBySeqAsc(AuthorType type, Integer season);
-    @Query("{ ingredients: { $regex: ?0, $options: 'i' } }")
-    List<Recipe> searchByIngredientRegex(String ingredient);
-    List<Recipe> findAllByOrderBySeqAsc();
+    boolean existsBySeq(Long seq);
+    // findOneAndDelete: borra y devuelve en la misma operación sólo el authorType y season de la receta (para las estadísticas)
+    @Query(value = "{ seq: ?0 }", fields = CLASSIFICATION_FIELDS, delete = true)
+    Optional<Recipe> deleteBySeq(Long seq);
+    @Query(value = "{ seq: ?0, version: ?1 }", fields = CLASSIFICATION_FIELDS, delete = true)
+    Optional<Recipe> deleteBySeqAndVersion(Long seq, Long version);
+    // deleteMany en el servidor: devuelve el número de documentos borrados sin leerlos
+    long deleteBySeqIn(Collection<Long> seqs);
+    <T> List<T> findAllBySeqInOrderBySeqAsc(List<Long> seqs, Class<T> type);
+    // Listados: proyección RecipeSummary, Mongo sólo lee y envía los campos del resumen
+    List<RecipeSummary> findAllBySeqGreaterThanOrderBySeqAsc(Long after, Limit limit);
+    List<RecipeSummary> findAllByAuthorTypeAndSeqGreaterThanOrderBySeqAsc(AuthorType type, Long after, Limit limit);
+    List<RecipeSummary> findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(AuthorType type, Integer season, Long after, Limit limit);
+    // Cursores para exportación: Mongo entrega lotes de 500 documentos, nunca la colección entera
+    @Meta(cursorBatchSize = 500) Stream<Recipe> streamAllByOrderBySeqAsc();
+    @Meta(cursorBatchSize = 500) Stream<Recipe> streamAllByAuthorTypeOrderBySeqAsc(AuthorType type);
+    @Meta(cursorBatchSize = 500) Stream<Recipe> streamAllBySeasonOrderBySeqAsc(Integer season);
+    @Meta(cursorBatchSize = 500) Stream<Recipe> streamAllByAuthorTypeAndSeasonOrderBySeqAsc(AuthorType type, Integer season);
+    // $all sobre el índice multikey de ingredientTokens: coste proporcional a las coincidencias
+    @Query(value = "{ ingredientTokens: { $all: ?0 } }", sort = "{ seq: 1 }", fields = SUMMARY_FIELDS)
+    List<RecipeSummary> searchByIngredientTokens(List<String> tokens);
 }
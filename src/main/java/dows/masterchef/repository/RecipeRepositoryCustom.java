@@ -0,0 +1,29 @@
+package dows.masterchef.repository;
+import com.mongodb.bulk.BulkWriteError;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.dto.RecipeTextMatch;
+import dows.masterchef.model.Recipe;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+public interface RecipeRepositoryCustom {
+    // insertMany no ordenado: un fallo no detiene el resto; devuelve los errores (índice dentro de recipes)
+    List<BulkWriteError> insertUnordered(List<Recipe> recipes);
+    // Aplica update a la receta con ese seq (y que cumpla guard, si no es null) en un solo findAndModify; devuelve el
+    // documento ya modificado o, con returnNew a false, el de antes de modificarlo
+    Optional<Recipe> findAndModifyBySeq(long seq, Criteria guard, Update update, boolean returnNew);
+    // $text sobre el índice recipes_text, de más a menos relevante (empate por seq); afterScore/afterSeq es la última
+    // receta de la página anterior (null en la primera). Sólo devuelve los campos del resumen y la relevancia.
+    List<RecipeTextMatch> searchText(String text, Double afterScore, long afterSeq, int limit);
+    // Campos de lookup(): cada uno tiene su índice con RecipeIndexes.LOOKUP_COLLATION
+    enum LookupField {
+        TITLE("title"), CHEF_NAME("chefName"), INGREDIENT("ingredients");
+        private final String path;
+        LookupField(String path) { this.path = path; }
+        public String getPath() { return path; }
+    }
+    // Recetas cuyo campo es igual a value (o empieza por value si prefix) sin distinguir mayúsculas ni tildes, por seq
+    // a partir de afterSeq; en ingredientes basta con que lo cumpla uno de ellos
+    List<RecipeSummary> lookup(LookupField field, String value, boolean prefix, long afterSeq, int limit);
+}
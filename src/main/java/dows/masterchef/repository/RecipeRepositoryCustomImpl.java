@@ -0,0 +1,70 @@
+package dows.masterchef.repository;
+import com.mongodb.bulk.BulkWriteError;
+import dows.masterchef.config.RecipeIndexes;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.dto.RecipeTextMatch;
+import dows.masterchef.model.Recipe;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.Update;
+public class RecipeRepositoryCustomImpl implements RecipeRepositoryCustom {
+    private final MongoOperations mongo;
+    public RecipeRepositoryCustomImpl(MongoOperations mongo) { this.mongo = mongo; }
+    @Override
+    public List<BulkWriteError> insertUnordered(List<Recipe> recipes) {
+        try {
+            mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class).insert(recipes).execute();
+            return List.of();
+        } catch (BulkOperationException ex) {
+            return ex.getErrors();
+        }
+    }
+    @Override
+    public Optional<Recipe> findAndModifyBySeq(long seq, Criteria guard, Update update, boolean returnNew) {
+        Criteria criteria = Criteria.where("seq").is(seq);
+        Query query = new Query(guard == null ? criteria : new Criteria().andOperator(criteria, guard));
+        return Optional.ofNullable(mongo.findAndModify(query, update, FindAndModifyOptions.options().returnNew(returnNew), Recipe.class));
+    }
+    // find no admite filtrar por textScore: la paginación por (score, seq) necesita una agregación.
+    // Sobre el nombre de la colección para que Spring no valide "score" contra los campos de Recipe.
+    @Override
+    public List<RecipeTextMatch> searchText(String text, Double afterScore, long afterSeq, int limit) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(TextCriteria.forLanguage(RecipeIndexes.TEXT_LANGUAGE).matching(text)));
+        stages.add(context -> new Document("$addFields", new Document("score", new Document("$meta", "textScore"))));
+        if (afterScore != null) {
+            stages.add(context -> new Document("$match", new Document("$or", List.of(new Document("score", new Document("$lt", afterScore)),
+                    new Document("score", afterScore).append("seq", new Document("$gt", afterSeq))))));
+        }
+        stages.add(Aggregation.sort(Sort.by(Sort.Order.desc("score"), Sort.Order.asc("seq"))));
+        stages.add(Aggregation.limit(limit));
+        stages.add(Aggregation.project("seq", "title", "chefName", "authorType", "season", "score").andExclude("_id"));
+        return mongo.aggregate(Aggregation.newAggregation(stages), mongo.getCollectionName(Recipe.class), RecipeTextMatch.class).getMappedResults();
+    }
+    // Prefijo = rango [value, value + U+FFFF): con collation el rango se compara con sus reglas (un regex no las usa ni
+    // aprovecha el índice) y U+FFFF ordena detrás de cualquier carácter. En el array de ingredientes el rango va en
+    // $elemMatch para que los dos límites los cumpla el mismo ingrediente.
+    @Override
+    public List<RecipeSummary> lookup(LookupField field, String value, boolean prefix, long afterSeq, int limit) {
+        Criteria match;
+        if (!prefix) { match = Criteria.where(field.getPath()).is(value); }
+        else if (field == LookupField.INGREDIENT) { match = Criteria.where(field.getPath()).elemMatch(new Criteria().gte(value).lt(value + '\uffff')); }
+        else { match = Criteria.where(field.getPath()).gte(value).lt(value + '\uffff'); }
+        Query query = new Query(new Criteria().andOperator(match, Criteria.where("seq").gt(afterSeq)))
+                .with(Sort.by("seq")).limit(limit).collation(RecipeIndexes.LOOKUP_COLLATION);
+        query.fields().include("seq", "title", "chefName", "authorType", "season").exclude("_id");
+        return mongo.find(query, RecipeSummary.class, mongo.getCollectionName(Recipe.class));
+    }
+}
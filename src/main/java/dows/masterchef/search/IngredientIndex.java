@@ -0,0 +1,217 @@
+package dows.masterchef.search;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.service.RecipeChangeListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+// Índice invertido en memoria: token de ingrediente -> bitmap comprimido (Roaring) de seq, y además
+// ingrediente completo normalizado -> seq con el número de ingredientes de cada receta (consultas de despensa),
+// un trie de esos nombres con cuántas recetas usan cada uno (autocompletado) y un índice de trigramas de los tokens
+// (búsqueda tolerante a erratas).
+// Cada instancia lo mantiene con sus propias escrituras y lo reconstruye periódicamente desde Mongo.
+@Component
+public class IngredientIndex implements RecipeChangeListener {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State(true);
+    // Escrituras recibidas mientras se reconstruye; se reaplican sobre el estado nuevo antes de publicarlo
+    private List<Consumer<State>> replay;
+
+    @Override
+    public void onSaved(Recipe recipe) { put(recipe.getSeq(), recipe.getIngredients()); }
+    @Override
+    public void onDeleted(long seq) { remove(seq); }
+
+    public void put(long seq, Collection<String> ingredients) {
+        List<String> tokens = Ingredients.tokens(ingredients);
+        List<String> names = names(ingredients);
+        apply(s -> s.put(seq, tokens, names));
+    }
+    private static List<String> names(Collection<String> ingredients) {
+        Set<String> names = new LinkedHashSet<>();
+        if (ingredients != null) {
+            for (String i : ingredients) {
+                String n = Ingredients.normalize(i);
+                if (!n.isEmpty()) { names.add(n); }
+            }
+        }
+        return List.copyOf(names);
+    }
+    public void remove(long seq) { apply(s -> s.remove(seq)); }
+    private void apply(Consumer<State> op) {
+        lock.writeLock().lock();
+        try {
+            op.accept(state);
+            if (replay != null) { replay.add(op); }
+        } finally { lock.writeLock().unlock(); }
+    }
+    // Si la carga falla (p. ej. se corta el cursor de Mongo) se conserva el estado anterior: uno a medio cargar haría
+    // que las búsquedas no encontraran recetas hasta la siguiente reconstrucción
+    public void rebuild(Iterator<Recipe> recipes) {
+        lock.writeLock().lock();
+        try { replay = new ArrayList<>(); } finally { lock.writeLock().unlock(); }
+        State fresh = new State(false);
+        try {
+            while (recipes.hasNext()) {
+                Recipe r = recipes.next();
+                fresh.put(r.getSeq(), Ingredients.tokens(r.getIngredients()), names(r.getIngredients()));
+            }
+            fresh.optimize();
+        } catch (RuntimeException | Error ex) {
+            lock.writeLock().lock();
+            try { replay = null; } finally { lock.writeLock().unlock(); }
+            throw ex;
+        }
+        lock.writeLock().lock();
+        try {
+            replay.forEach(op -> op.accept(fresh));
+            state = fresh;
+            replay = null;
+        } finally { lock.writeLock().unlock(); }
+    }
+    public long size() {
+        lock.readLock().lock();
+        try { return state.universe.getLongCardinality(); } finally { lock.readLock().unlock(); }
+    }
+    // Cada término puede tener varias palabras ("queso manchego"): un término casa si casan todas sus palabras.
+    // all-of = AND de términos, any-of = OR de términos, none-of = se resta el OR de términos.
+    public Roaring64Bitmap match(Collection<String> allOf, Collection<String> anyOf, Collection<String> noneOf) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = null;
+            for (String term : nonNull(allOf)) {
+                Roaring64Bitmap m = state.term(term);
+                result = result == null ? m : Roaring64Bitmap.and(result, m);
+            }
+            if (!nonNull(anyOf).isEmpty()) {
+                Roaring64Bitmap union = new Roaring64Bitmap();
+                for (String term : anyOf) { union.or(state.term(term)); }
+                result = result == null ? union : Roaring64Bitmap.and(result, union);
+            }
+            if (result == null) { result = state.universe.clone(); }
+            for (String term : nonNull(noneOf)) { result.andNot(state.term(term)); }
+            return result;
+        } finally { lock.readLock().unlock(); }
+    }
+    public record PantryCandidate(long seq, int missing, List<String> missingIngredients) { }
+    // Recetas cuyos ingredientes están (casi) todos en la despensa: una pasada por las postings de los
+    // ingredientes de la despensa acumulando aciertos por receta; faltan = total de la receta - aciertos.
+    // Devuelve los limit mejores por menos faltantes y después por seq.
+    public List<PantryCandidate> pantry(Collection<String> pantry, int maxMissing, int limit) {
+        Set<String> have = new LinkedHashSet<>(names(pantry));
+        Comparator<PantryCandidate> best = Comparator.comparingInt(PantryCandidate::missing).thenComparingLong(PantryCandidate::seq);
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> hits = new HashMap<>();
+            for (String name : have) {
+                Roaring64Bitmap p = state.ingredientPostings.get(name);
+                if (p != null) { p.forEach(seq -> hits.merge(seq, 1, Integer::sum)); }
+            }
+            PriorityQueue<PantryCandidate> top = new PriorityQueue<>(best.reversed());
+            hits.forEach((seq, hit) -> {
+                int missing = state.namesBySeq.get(seq).size() - hit;
+                if (missing > maxMissing) { return; }
+                PantryCandidate c = new PantryCandidate(seq, missing, null);
+                if (top.size() < limit) { top.add(c); }
+                else if (best.compare(c, top.peek()) < 0) { top.poll(); top.add(c); }
+            });
+            List<PantryCandidate> out = new ArrayList<>(top.size());
+            for (PantryCandidate c : top) {
+                List<String> missing = state.namesBySeq.get(c.seq()).stream().filter(n -> !have.contains(n)).toList();
+                out.add(new PantryCandidate(c.seq(), c.missing(), missing));
+            }
+            out.sort(best);
+            return out;
+        } finally { lock.readLock().unlock(); }
+    }
+    public record Suggestion(String name, int recipes) { }
+    public static final int MAX_SUGGESTIONS = IngredientTrie.TOP;
+    // Nombres de ingrediente que empiezan por prefix (normalizado), los más usados primero
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = Ingredients.normalize(prefix);
+        lock.readLock().lock();
+        try { return state.trie.suggest(normalized, limit); } finally { lock.readLock().unlock(); }
+    }
+    // Como un término de match() pero cada palabra casa también con los tokens del vocabulario a pocas letras de
+    // distancia ("tomatte" -> tomate): OR de las postings de esos tokens por palabra y AND entre palabras
+    public Roaring64Bitmap fuzzy(String term) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = null;
+            for (String token : Ingredients.tokens(term)) {
+                Roaring64Bitmap union = new Roaring64Bitmap();
+                for (String similar : state.trigrams.similar(token)) { union.or(state.postings.get(similar)); }
+                result = result == null ? union : Roaring64Bitmap.and(result, union);
+            }
+            return result == null ? new Roaring64Bitmap() : result;
+        } finally { lock.readLock().unlock(); }
+    }
+    private static Collection<String> nonNull(Collection<String> terms) { return terms == null ? List.of() : terms; }
+
+    private static final class State {
+        private final Map<String, Roaring64Bitmap> postings = new HashMap<>();
+        private final Map<Long, List<String>> tokensBySeq = new HashMap<>();
+        private final Map<String, Roaring64Bitmap> ingredientPostings = new HashMap<>();
+        private final Map<Long, List<String>> namesBySeq = new HashMap<>();
+        private final Roaring64Bitmap universe = new Roaring64Bitmap();
+        private final IngredientTrie trie;
+        private final TrigramIndex trigrams = new TrigramIndex();
+        State(boolean ranked) { this.trie = new IngredientTrie(ranked); }
+        void put(long seq, List<String> tokens, List<String> names) {
+            remove(seq);
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, t -> { trigrams.add(t); return new Roaring64Bitmap(); }).addLong(seq);
+            }
+            for (String name : names) {
+                ingredientPostings.computeIfAbsent(name, n -> new Roaring64Bitmap()).addLong(seq);
+                trie.add(name, 1);
+            }
+            tokensBySeq.put(seq, tokens);
+            namesBySeq.put(seq, names);
+            universe.addLong(seq);
+        }
+        void remove(long seq) {
+            List<String> previous = tokensBySeq.remove(seq);
+            if (previous == null) { return; }
+            unlink(postings, previous, seq, trigrams::remove);
+            List<String> names = namesBySeq.remove(seq);
+            unlink(ingredientPostings, names, seq, name -> { });
+            names.forEach(name -> trie.add(name, -1));
+            universe.removeLong(seq);
+        }
+        // dropped recibe las claves que se quedan sin recetas
+        private static void unlink(Map<String, Roaring64Bitmap> postings, List<String> keys, long seq, Consumer<String> dropped) {
+            for (String key : keys) {
+                Roaring64Bitmap p = postings.get(key);
+                p.removeLong(seq);
+                if (p.isEmpty()) { postings.remove(key); dropped.accept(key); }
+            }
+        }
+        // Siempre devuelve un bitmap nuevo: el llamador puede modificarlo fuera del lock
+        Roaring64Bitmap term(String term) {
+            Roaring64Bitmap result = null;
+            for (String token : Ingredients.tokens(term)) {
+                Roaring64Bitmap p = postings.get(token);
+                if (p == null) { return new Roaring64Bitmap(); }
+                result = result == null ? p.clone() : Roaring64Bitmap.and(result, p);
+            }
+            return result == null ? new Roaring64Bitmap() : result;
+        }
+        void optimize() {
+            postings.values().forEach(Roaring64Bitmap::runOptimize);
+            ingredientPostings.values().forEach(Roaring64Bitmap::runOptimize);
+            trie.rank();
+        }
+    }
+}
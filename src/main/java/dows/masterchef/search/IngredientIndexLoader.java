@@ -0,0 +1,31 @@
+package dows.masterchef.search;
+import dows.masterchef.model.Recipe;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+// Carga el índice al arrancar y lo reconstruye periódicamente para recoger escrituras de otras instancias
+@Component
+public class IngredientIndexLoader implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(IngredientIndexLoader.class);
+    private final MongoOperations mongo;
+    private final IngredientIndex index;
+    public IngredientIndexLoader(MongoOperations mongo, IngredientIndex index) { this.mongo = mongo; this.index = index; }
+    @Override
+    public void run(ApplicationArguments args) { reload(); }
+    @Scheduled(fixedDelayString = "${masterchef.ingredient-index.refresh:PT10M}", initialDelayString = "${masterchef.ingredient-index.refresh:PT10M}")
+    public void reload() {
+        Query query = new Query();
+        query.fields().include("seq").include("ingredients");
+        long start = System.nanoTime();
+        try (Stream<Recipe> recipes = mongo.stream(query, Recipe.class)) {
+            index.rebuild(recipes.iterator());
+        }
+        log.info("ingredient index loaded: {} recipes in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,43 @@
+package dows.masterchef.search;
+import dows.masterchef.model.Recipe;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+// Rellena ingredientTokens en recetas guardadas antes de que existiera el campo
+@Component
+public class IngredientTokenBackfill implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(IngredientTokenBackfill.class);
+    static final int BATCH_SIZE = 500;
+    private final MongoOperations mongo;
+    public IngredientTokenBackfill(MongoOperations mongo) { this.mongo = mongo; }
+    @Override
+    public void run(ApplicationArguments args) { backfill(); }
+    public long backfill() {
+        Query missing = new Query(Criteria.where("ingredientTokens").exists(false));
+        missing.fields().include("seq").include("ingredients");
+        long updated = 0;
+        BulkOperations bulk = null;
+        int pending = 0;
+        try (Stream<Recipe> recipes = mongo.stream(missing, Recipe.class)) {
+            Iterator<Recipe> it = recipes.iterator();
+            while (it.hasNext()) {
+                Recipe r = it.next();
+                if (bulk == null) { bulk = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class); }
+                bulk.updateOne(new Query(Criteria.where("_id").is(r.getId())), new Update().set("ingredientTokens", Ingredients.tokens(r.getIngredients())));
+                if (++pending == BATCH_SIZE) { bulk.execute(); updated += pending; bulk = null; pending = 0; }
+            }
+        }
+        if (pending > 0) { bulk.execute(); updated += pending; }
+        if (updated > 0) { log.info("ingredientTokens backfilled for {} recipes", updated); }
+        return updated;
+    }
+}
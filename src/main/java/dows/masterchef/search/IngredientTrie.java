@@ -0,0 +1,133 @@
+package dows.masterchef.search;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+// Trie de prefijos de nombres de ingrediente normalizados con el número de recetas que usa cada uno. Cada nodo guarda
+// sus TOP nombres más usados, así que sugerir es recorrer el prefijo y copiar esa lista: O(longitud del prefijo + k)
+// aunque debajo haya miles de ingredientes. Los hijos van en arrays ordenados (sin un mapa por nodo).
+// No es thread-safe: IngredientIndex lo usa bajo su lock.
+final class IngredientTrie {
+    static final int TOP = 20;
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final Comparator<Node> BEST = Comparator.comparingInt((Node n) -> n.count).reversed().thenComparing(n -> n.word);
+    private final Node root = new Node();
+    // false durante una carga masiva: los top se calculan una sola vez al final con rank()
+    private boolean ranked;
+    IngredientTrie(boolean ranked) { this.ranked = ranked; }
+
+    private static final class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_NODES;
+        Node[] top = NO_NODES;
+        String word;
+        int count;
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i < 0 ? null : children[i];
+        }
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) { return children[i]; }
+            int at = -i - 1;
+            char[] k = new char[keys.length + 1];
+            Node[] ch = new Node[children.length + 1];
+            System.arraycopy(keys, 0, k, 0, at); System.arraycopy(keys, at, k, at + 1, keys.length - at);
+            System.arraycopy(children, 0, ch, 0, at); System.arraycopy(children, at, ch, at + 1, children.length - at);
+            k[at] = c; ch[at] = new Node();
+            keys = k; children = ch;
+            return ch[at];
+        }
+        void removeChild(char c) {
+            int at = Arrays.binarySearch(keys, c);
+            if (at < 0) { return; }
+            char[] k = new char[keys.length - 1];
+            Node[] ch = new Node[children.length - 1];
+            System.arraycopy(keys, 0, k, 0, at); System.arraycopy(keys, at + 1, k, at, keys.length - at - 1);
+            System.arraycopy(children, 0, ch, 0, at); System.arraycopy(children, at + 1, ch, at, children.length - at - 1);
+            keys = k.length == 0 ? NO_KEYS : k; children = ch.length == 0 ? NO_NODES : ch;
+        }
+    }
+
+    // Suma delta recetas al nombre; a 0 se poda la rama que ya no lleva a ningún nombre. Sólo los top del camino
+    // pueden contener este nombre, y se corrigen de abajo arriba hasta el primero que no cambia.
+    void add(String word, int delta) {
+        if (word.isEmpty() || delta == 0) { return; }
+        Node[] path = new Node[word.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < word.length(); i++) {
+            path[i + 1] = delta > 0 ? path[i].childOrCreate(word.charAt(i)) : path[i].child(word.charAt(i));
+            if (path[i + 1] == null) { return; }
+        }
+        Node node = path[word.length()];
+        node.count = Math.max(0, node.count + delta);
+        node.word = node.count > 0 ? word : null;
+        for (int i = word.length(); i > 0 && path[i].count == 0 && path[i].keys.length == 0; i--) {
+            path[i - 1].removeChild(word.charAt(i - 1));
+            path[i] = null;
+        }
+        if (!ranked) { return; }
+        for (int i = word.length(); i >= 0; i--) {
+            if (path[i] != null && !reposition(path[i], node, delta > 0)) { return; }
+        }
+    }
+    // Si x no estaba en el top de node y no entra, tampoco está ni entra en el de ningún ancestro: devuelve false
+    private static boolean reposition(Node node, Node x, boolean increased) {
+        Node[] top = node.top;
+        int at = -1;
+        for (int i = 0; i < top.length && at < 0; i++) { if (top[i] == x) { at = i; } }
+        if (at < 0) {
+            if (!increased || (top.length == TOP && BEST.compare(x, top[TOP - 1]) >= 0)) { return false; }
+            int pos = 0;
+            while (pos < top.length && BEST.compare(top[pos], x) < 0) { pos++; }
+            Node[] t = new Node[Math.min(top.length + 1, TOP)];
+            System.arraycopy(top, 0, t, 0, pos);
+            t[pos] = x;
+            System.arraycopy(top, pos, t, pos + 1, t.length - pos - 1);
+            node.top = t;
+            return true;
+        }
+        if (x.count == 0) { rank(node); return true; }
+        // Sólo ha cambiado x: se desplaza hasta su sitio
+        while (at > 0 && BEST.compare(top[at], top[at - 1]) < 0) { swap(top, at, at - 1); at--; }
+        while (at < top.length - 1 && BEST.compare(top[at], top[at + 1]) > 0) { swap(top, at, at + 1); at++; }
+        // En el último puesto de un top lleno puede superarlo un nombre que estaba fuera
+        if (!increased && top.length == TOP && at == TOP - 1) { rank(node); }
+        return true;
+    }
+    private static void swap(Node[] top, int i, int j) { Node t = top[i]; top[i] = top[j]; top[j] = t; }
+    void rank() {
+        rankAll(root);
+        ranked = true;
+    }
+    private static void rankAll(Node node) {
+        for (Node child : node.children) { rankAll(child); }
+        rank(node);
+    }
+    // Mezcla los top (ya ordenados) de los hijos con el propio nodo quedándose con los TOP mejores
+    private static void rank(Node node) {
+        List<Node> best = new ArrayList<>(TOP + 1);
+        if (node.count > 0) { best.add(node); }
+        for (Node child : node.children) {
+            for (Node candidate : child.top) {
+                if (best.size() == TOP && BEST.compare(candidate, best.get(TOP - 1)) >= 0) { break; }
+                int at = Collections.binarySearch(best, candidate, BEST);
+                best.add(-at - 1, candidate);
+                if (best.size() > TOP) { best.remove(TOP); }
+            }
+        }
+        node.top = best.isEmpty() ? NO_NODES : best.toArray(NO_NODES);
+    }
+    // Hasta limit (<= TOP) nombres que empiezan por prefix, de más a menos recetas y después alfabéticamente
+    List<IngredientIndex.Suggestion> suggest(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) { node = node.child(prefix.charAt(i)); }
+        if (node == null) { return List.of(); }
+        int n = Math.min(limit, node.top.length);
+        List<IngredientIndex.Suggestion> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) { out.add(new IngredientIndex.Suggestion(node.top[i].word, node.top[i].count)); }
+        return out;
+    }
+}
@@ -0,0 +1,36 @@
+package dows.masterchef.search;
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+// Normalización común a todos los índices de ingredientes: minúsculas, sin tildes, espacios simples
+public final class Ingredients {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOPWORDS = Set.of("a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los", "o", "para", "por", "sin", "u", "un", "una", "y");
+    private Ingredients() { }
+    public static String normalize(String ingredient) {
+        if (ingredient == null) { return ""; }
+        String plain = MARKS.matcher(Normalizer.normalize(ingredient, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+    public static List<String> tokens(String text) {
+        Set<String> out = new TreeSet<>();
+        addTokens(text, out);
+        return List.copyOf(out);
+    }
+    // Tokens distintos y ordenados de todos los ingredientes de una receta (campo multikey ingredientTokens)
+    public static List<String> tokens(Collection<String> ingredients) {
+        Set<String> out = new TreeSet<>();
+        if (ingredients != null) { ingredients.forEach(i -> addTokens(i, out)); }
+        return List.copyOf(out);
+    }
+    private static void addTokens(String text, Set<String> out) {
+        for (String token : normalize(text).split(" ")) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token)) { out.add(token); }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package dows.masterchef.search;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+// Índice de trigramas del vocabulario de tokens de ingrediente (no de las recetas): encuentra los tokens parecidos a
+// uno mal escrito sin recorrer todo el vocabulario. Cada token tiene un id y cada trigrama un bitmap de ids; los
+// candidatos salen de los trigramas más raros de la consulta y se confirman con la distancia de edición (inserción,
+// borrado, sustitución o transposición de letras contiguas).
+// No es thread-safe: IngredientIndex lo usa bajo su lock.
+final class TrigramIndex {
+    static final int MAX_CANDIDATES = 20;
+    private static final RoaringBitmap NONE = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> idsByTrigram = new HashMap<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> tokens = new ArrayList<>();
+    // ids de tokens borrados, se reutilizan para que los bitmaps no crezcan con el tiempo
+    private final Deque<Integer> free = new ArrayDeque<>();
+
+    void add(String token) {
+        if (ids.containsKey(token)) { return; }
+        int id;
+        if (free.isEmpty()) { id = tokens.size(); tokens.add(token); } else { id = free.pop(); tokens.set(id, token); }
+        ids.put(token, id);
+        for (String t : trigrams(token)) { idsByTrigram.computeIfAbsent(t, k -> new RoaringBitmap()).add(id); }
+    }
+    void remove(String token) {
+        Integer id = ids.remove(token);
+        if (id == null) { return; }
+        for (String t : trigrams(token)) {
+            RoaringBitmap b = idsByTrigram.get(t);
+            b.remove(id);
+            if (b.isEmpty()) { idsByTrigram.remove(t); }
+        }
+        tokens.set(id, null);
+        free.push(id);
+    }
+    // Errores admitidos según la longitud: ninguno hasta 4 letras, 1 hasta 8 y 2 a partir de 9. Un token de n letras
+    // tiene n trigramas, así que con n > 4·max el filtro de similar() nunca descarta un token a esa distancia
+    static int maxDistance(String token) { return token.length() < 5 ? 0 : token.length() < 9 ? 1 : 2; }
+    // Tokens del vocabulario a distancia <= maxDistance(token), los más cercanos primero (el propio token si existe)
+    List<String> similar(String token) {
+        int max = maxDistance(token);
+        // Cada error rompe como mucho 4 trigramas de la consulta (una transposición): un token a distancia <= max comparte
+        // al menos n - 4·max de sus n trigramas y, por tanto, alguno de los 4·max + 1 más raros. Los candidatos salen de
+        // esos y sólo se calcula la distancia de los que además comparten bastantes en total.
+        List<RoaringBitmap> lists = new ArrayList<>();
+        for (String g : trigrams(token)) { lists.add(idsByTrigram.getOrDefault(g, NONE)); }
+        lists.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        int required = lists.size() - 4 * max;
+        int rarest = Math.min(lists.size(), 4 * max + 1);
+        RoaringBitmap candidates = RoaringBitmap.or(lists.subList(0, rarest).iterator());
+        // Los trigramas compartidos se cuentan sólo para los candidatos (ids ordenados; shared[i] es el de ids[i])
+        int[] ids = candidates.toArray();
+        int[] shared = new int[ids.length];
+        for (int k = 0; k < lists.size(); k++) {
+            // Las listas más raras ya están contenidas en candidates; el resto se recorta a ellos. Los ids salen en orden,
+            // como en ids: basta avanzar un puntero
+            RoaringBitmap shares = k < rarest ? lists.get(k) : RoaringBitmap.and(lists.get(k), candidates);
+            int j = 0;
+            for (PeekableIntIterator it = shares.getIntIterator(); it.hasNext(); ) {
+                int id = it.next();
+                while (ids[j] != id) { j++; }
+                shared[j++]++;
+            }
+        }
+        record Candidate(String token, int distance) { }
+        List<Candidate> found = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (shared[i] < required) { continue; }
+            int id = ids[i];
+            String candidate = tokens.get(id);
+            int d = distance(token, candidate, max);
+            if (d <= max) { found.add(new Candidate(candidate, d)); }
+        }
+        return found.stream().sorted(Comparator.comparingInt(Candidate::distance).thenComparing(Candidate::token))
+                .limit(MAX_CANDIDATES).map(Candidate::token).toList();
+    }
+    // "#" marca el principio y el final: los trigramas de los extremos pesan y los tokens cortos también tienen trigramas
+    static Set<String> trigrams(String token) {
+        String padded = "#" + token + "#";
+        Set<String> out = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) { out.add(padded.substring(i, i + 3)); }
+        return out;
+    }
+    // Distancia de edición con transposiciones (OSA) limitada a max: sólo se calcula la banda |i - j| <= max y devuelve
+    // max + 1 en cuanto una fila entera la supera
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) { return max + 1; }
+        int over = max + 1;
+        int[] prev2 = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) { prev[j] = Math.min(j, over); }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max), to = Math.min(b.length(), i + max);
+            cur[from - 1] = from == 1 ? Math.min(i, over) : over;
+            int rowMin = cur[from - 1];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) { d = Math.min(d, prev2[j - 2] + 1); }
+                cur[j] = Math.min(d, over);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (to < b.length()) { cur[to + 1] = over; }
+            if (rowMin > max) { return over; }
+            int[] t = prev2; prev2 = prev; prev = cur; cur = t;
+        }
+        return prev[b.length()];
+    }
+}
@@ -0,0 +1,96 @@
+package dows.masterchef.service;
+import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.dto.RecipePage;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.model.RecipeStats;
+import dows.masterchef.repository.ReactiveRecipeRepository;
+import dows.masterchef.search.Ingredients;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+// Misma lógica que RecipeService sobre el driver reactivo. Los listados sin limit se emiten completos
+// como Flux con contrapresión (el cursor de Mongo sólo avanza según lo que consume el cliente).
+@Service
+@Profile("reactive")
+public class ReactiveRecipeService {
+    private final ReactiveRecipeRepository repo;
+    private final ReactiveSequenceService sequenceService;
+    private final List<RecipeChangeListener> listeners;
+    private final ReactiveRecipeStatsService stats;
+    public ReactiveRecipeService(ReactiveRecipeRepository repo, ReactiveSequenceService sequenceService, List<RecipeChangeListener> listeners,
+                                 ReactiveRecipeStatsService stats) {
+        this.repo = repo; this.sequenceService = sequenceService; this.listeners = listeners; this.stats = stats;
+    }
+    private void saved(Recipe recipe) { listeners.forEach(l -> l.onSaved(recipe)); }
+    public Mono<Recipe> create(RecipeInput in) {
+        return Mono.fromRunnable(() -> RecipeService.ensureParticipantSeason(in))
+                .then(Mono.defer(() -> sequenceService.getNextSequence("recipes")))
+                .map(seq -> RecipeService.newRecipe(in, seq))
+                .flatMap(repo::save)
+                .flatMap(r -> stats.apply(new RecipeStatsService.Delta().add(r.getAuthorType(), r.getSeason())).thenReturn(r))
+                .doOnNext(this::saved);
+    }
+    public Mono<Recipe> findBySeq(long seq) {
+        return repo.findBySeq(Long.valueOf(seq)).switchIfEmpty(Mono.error(() -> new ApiException(404, "Recipe not found")));
+    }
+    // Sin limit se emite todo lo que hay después de after; con limit se pide uno de más para saber si hay página
+    // siguiente y se devuelve la página con su cursor, como en RecipeService
+    private static Flux<RecipeSummary> list(String after, Function<Long, Function<Limit, Flux<RecipeSummary>>> query) {
+        return Flux.defer(() -> query.apply(RecipePage.decodeCursor(after)).apply(Limit.unlimited()));
+    }
+    private static Mono<RecipePage<RecipeSummary>> page(String after, int limit, Function<Long, Function<Limit, Flux<RecipeSummary>>> query) {
+        return Mono.defer(() -> {
+            int size = RecipePage.pageSize(limit);
+            return query.apply(RecipePage.decodeCursor(after)).apply(Limit.of(size + 1)).collectList().map(fetched -> RecipeService.page(fetched, size));
+        });
+    }
+    private Function<Long, Function<Limit, Flux<RecipeSummary>>> all() { return a -> l -> repo.findAllBySeqGreaterThanOrderBySeqAsc(a, l); }
+    private Function<Long, Function<Limit, Flux<RecipeSummary>>> type(AuthorType type) {
+        return a -> l -> repo.findAllByAuthorTypeAndSeqGreaterThanOrderBySeqAsc(type, a, l);
+    }
+    private Function<Long, Function<Limit, Flux<RecipeSummary>>> season(int season) {
+        return a -> l -> repo.findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(AuthorType.PARTICIPANT, Integer.valueOf(season), a, l);
+    }
+    public Flux<RecipeSummary> findAll(String after) { return list(after, all()); }
+    public Mono<RecipePage<RecipeSummary>> findAllPage(String after, int limit) { return page(after, limit, all()); }
+    public Flux<RecipeSummary> byType(AuthorType type, String after) { return list(after, type(type)); }
+    public Mono<RecipePage<RecipeSummary>> byTypePage(AuthorType type, String after, int limit) { return page(after, limit, type(type)); }
+    public Flux<RecipeSummary> bySeason(int season, String after) { return list(after, season(season)); }
+    public Mono<RecipePage<RecipeSummary>> bySeasonPage(int season, String after, int limit) { return page(after, limit, season(season)); }
+    public Flux<RecipeSummary> searchByIngredient(String ingredient) {
+        if (!StringUtils.hasText(ingredient)) { return Flux.error(new ApiException(400, "ingredient query param is required")); }
+        List<String> tokens = Ingredients.tokens(ingredient);
+        return tokens.isEmpty() ? Flux.empty() : repo.searchByIngredientTokens(tokens);
+    }
+    public Mono<Recipe> update(long seq, RecipeInput in) {
+        return Mono.fromRunnable(() -> RecipeService.ensureParticipantSeason(in))
+                .then(Mono.defer(() -> findBySeq(seq)))
+                .flatMap(existing -> {
+                    RecipeStatsService.Delta delta = new RecipeStatsService.Delta().remove(existing.getAuthorType(), existing.getSeason());
+                    existing.setTitle(in.getTitle());
+                    existing.setIngredients(in.getIngredients());
+                    existing.setIngredientTokens(Ingredients.tokens(in.getIngredients()));
+                    existing.setSteps(in.getSteps());
+                    existing.setChefName(in.getChefName());
+                    existing.setAuthorType(in.getAuthorType());
+                    existing.setSeason(in.getSeason());
+                    return repo.save(existing).flatMap(r -> stats.apply(delta.add(r.getAuthorType(), r.getSeason())).thenReturn(r));
+                })
+                .doOnNext(this::saved);
+    }
+    public Mono<Void> delete(long seq) {
+        return repo.deleteBySeq(Long.valueOf(seq))
+                .switchIfEmpty(Mono.error(() -> new ApiException(404, "Recipe not found")))
+                .flatMap(deleted -> stats.apply(new RecipeStatsService.Delta().remove(deleted.getAuthorType(), deleted.getSeason())))
+                .then(Mono.fromRunnable(() -> listeners.forEach(l -> l.onDeleted(seq))));
+    }
+    public Mono<RecipeStats> stats() { return stats.stats(); }
+}
@@ -0,0 +1,21 @@
+package dows.masterchef.service;
+import dows.masterchef.model.RecipeStats;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+// Equivalente no bloqueante de RecipeStatsService.apply/stats (mismo documento); la reconciliación es la de RecipeStatsReconciler
+@Service
+@Profile("reactive")
+public class ReactiveRecipeStatsService {
+    private final ReactiveMongoOperations mongo;
+    public ReactiveRecipeStatsService(ReactiveMongoOperations mongo) { this.mongo = mongo; }
+    public Mono<Void> apply(RecipeStatsService.Delta delta) {
+        if (delta.isEmpty()) { return Mono.empty(); }
+        return mongo.upsert(RecipeStatsService.byId(), delta.toUpdate(), RecipeStats.class).then();
+    }
+    public Mono<RecipeStats> stats() {
+        return mongo.findById(RecipeStatsService.ID, RecipeStats.class).map(RecipeStatsService::normalized)
+                .defaultIfEmpty(new RecipeStats(RecipeStatsService.ID));
+    }
+}
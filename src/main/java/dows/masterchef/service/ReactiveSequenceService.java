@@ -0,0 +1,55 @@
+package dows.masterchef.service;
+import dows.masterchef.model.Counter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+// Equivalente no bloqueante de SequenceService (mismas estrategias y propiedades)
+@Service
+@Profile("reactive")
+public class ReactiveSequenceService {
+    private final ReactiveMongoOperations mongo;
+    private final SequenceService.Strategy strategy;
+    private final int blockSize;
+    private final Map<String, SequenceRange> ranges = new ConcurrentHashMap<>();
+    // Una sola recarga en vuelo por secuencia: los suscriptores que encuentran el rango agotado la comparten
+    private final Map<String, Mono<SequenceRange>> refills = new ConcurrentHashMap<>();
+    public ReactiveSequenceService(ReactiveMongoOperations mongo,
+                                   @Value("${masterchef.sequence.strategy:GAP_FREE}") SequenceService.Strategy strategy,
+                                   @Value("${masterchef.sequence.block-size:50}") int blockSize) {
+        if (blockSize < 1) { throw new IllegalArgumentException("masterchef.sequence.block-size must be >= 1"); }
+        this.mongo = mongo; this.strategy = strategy; this.blockSize = blockSize;
+    }
+    public Mono<Long> getNextSequence(String name) {
+        if (strategy == SequenceService.Strategy.GAP_FREE) { return reserve(name, 1); }
+        return Mono.defer(() -> {
+            SequenceRange range = ranges.get(name);
+            long value = range == null ? 0 : range.take();
+            if (value > 0) { return Mono.just(value); }
+            return refill(name, range).then(getNextSequence(name));
+        });
+    }
+    // Si otro suscriptor ya recargó el rango no se guarda nada en refills (devuelve vacío y getNextSequence vuelve a leer
+    // ranges): sólo la reserva en vuelo se comparte, y la quita su doFinally
+    Mono<SequenceRange> refill(String name, SequenceRange exhausted) {
+        Mono<SequenceRange> inFlight = refills.computeIfAbsent(name, n -> ranges.get(n) != exhausted ? null
+                : reserve(n, blockSize)
+                        .map(hi -> { SequenceRange r = new SequenceRange(hi - blockSize + 1, hi); ranges.put(n, r); return r; })
+                        .doFinally(signal -> refills.remove(n))
+                        .cache());
+        return inFlight == null ? Mono.empty() : inFlight;
+    }
+    public Mono<Long> reserve(String name, long count) {
+        Query query = new Query(Criteria.where("_id").is(name));
+        Update update = new Update().inc("seq", count);
+        FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true).upsert(true);
+        return mongo.findAndModify(query, update, options, Counter.class).map(Counter::getSeq);
+    }
+}
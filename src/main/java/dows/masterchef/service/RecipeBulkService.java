@@ -0,0 +1,132 @@
+package dows.masterchef.service;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import dows.masterchef.dto.BulkItemResult;
+import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.repository.RecipeRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+// Alta masiva: valida todo, reserva los seq con un único $inc del contador y escribe con insertMany no ordenado por lotes.
+// Borrado masivo: deleteMany en el servidor, como mucho de chunkSize recetas cada uno.
+@Service
+@Timed(value = "masterchef.service", histogram = true)
+public class RecipeBulkService {
+    private final RecipeRepository repo;
+    private final SequenceService sequenceService;
+    private final Validator validator;
+    private final List<RecipeChangeListener> listeners;
+    private final RecipeStatsService stats;
+    private final int chunkSize;
+    private final int maxItems;
+    public RecipeBulkService(RecipeRepository repo, SequenceService sequenceService, Validator validator, List<RecipeChangeListener> listeners,
+                             RecipeStatsService stats,
+                             @Value("${masterchef.bulk.chunk-size:500}") int chunkSize,
+                             @Value("${masterchef.bulk.max-items:5000}") int maxItems) {
+        this.repo = repo; this.sequenceService = sequenceService; this.validator = validator; this.listeners = listeners; this.stats = stats;
+        this.chunkSize = chunkSize; this.maxItems = maxItems;
+    }
+    public List<BulkItemResult> createAll(List<RecipeInput> inputs) {
+        if (inputs == null || inputs.isEmpty()) { throw new ApiException(400, "at least one recipe is required"); }
+        if (inputs.size() > maxItems) { throw new ApiException(400, "at most " + maxItems + " recipes per request"); }
+        BulkItemResult[] results = new BulkItemResult[inputs.size()];
+        List<Integer> valid = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            String error = validate(inputs.get(i));
+            if (error == null) { valid.add(i); } else { results[i] = BulkItemResult.failed(i, 400, error); }
+        }
+        if (!valid.isEmpty()) {
+            long first = sequenceService.reserve("recipes", valid.size()) - valid.size() + 1;
+            List<Recipe> recipes = new ArrayList<>(valid.size());
+            Instant now = Instant.now();
+            for (int k = 0; k < valid.size(); k++) {
+                recipes.add(RecipeService.forInsertMany(RecipeService.newRecipe(inputs.get(valid.get(k)), first + k), now));
+            }
+            // Un solo $inc de estadísticas con todas las recetas insertadas
+            RecipeStatsService.Delta delta = new RecipeStatsService.Delta();
+            for (int from = 0; from < recipes.size(); from += chunkSize) {
+                List<Recipe> chunk = recipes.subList(from, Math.min(from + chunkSize, recipes.size()));
+                insert(chunk, valid.subList(from, from + chunk.size()), results, delta);
+            }
+            stats.apply(delta);
+        }
+        return Arrays.asList(results);
+    }
+    public long deleteAll(List<Long> seqs) {
+        if (seqs == null || seqs.isEmpty()) { throw new ApiException(400, "at least one seq is required"); }
+        if (seqs.size() > maxItems) { throw new ApiException(400, "at most " + maxItems + " seqs per request"); }
+        Set<Long> unique = new LinkedHashSet<>(seqs);
+        // Proyección de las que existen: su authorType y season se descuentan de las estadísticas
+        return delete(unique, repo.findAllBySeqInOrderBySeqAsc(new ArrayList<>(unique), RecipeSummary.class));
+    }
+    // Por lotes de chunkSize en orden de seq (índice authorType+season+seq): de cada lote se leen sólo los seq para
+    // borrar exactamente esos y avisar a la caché y al índice de ingredientes, nunca la temporada entera de una vez.
+    // Una receta creada durante el borrado se conserva si su seq queda detrás del último lote.
+    public long deleteSeason(int season) {
+        long deleted = 0;
+        long after = 0;
+        while (true) {
+            List<RecipeSummary> batch = repo.findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(AuthorType.PARTICIPANT, Integer.valueOf(season),
+                    Long.valueOf(after), Limit.of(chunkSize));
+            if (batch.isEmpty()) { return deleted; }
+            deleted += delete(batch.stream().map(RecipeSummary::getSeq).collect(Collectors.toList()), batch);
+            if (batch.size() < chunkSize) { return deleted; }
+            after = batch.get(batch.size() - 1).getSeq();
+        }
+    }
+    // Si otra petición borra o reclasifica alguna entre la lectura y el deleteMany, las estadísticas se desvían
+    // hasta la siguiente reconciliación
+    private long delete(Collection<Long> seqs, List<RecipeSummary> existing) {
+        long deleted = repo.deleteBySeqIn(seqs);
+        RecipeStatsService.Delta delta = new RecipeStatsService.Delta();
+        existing.forEach(r -> delta.remove(r.getAuthorType(), r.getSeason()));
+        stats.apply(delta);
+        seqs.forEach(seq -> listeners.forEach(l -> l.onDeleted(seq)));
+        return deleted;
+    }
+    private void insert(List<Recipe> chunk, List<Integer> positions, BulkItemResult[] results, RecipeStatsService.Delta delta) {
+        Set<Integer> failed = new HashSet<>();
+        for (BulkWriteError error : repo.insertUnordered(chunk)) {
+            int status = error.getCategory() == ErrorCategory.DUPLICATE_KEY ? 409 : 500;
+            int position = positions.get(error.getIndex());
+            results[position] = BulkItemResult.failed(position, status, error.getMessage());
+            failed.add(error.getIndex());
+        }
+        for (int k = 0; k < chunk.size(); k++) {
+            if (failed.contains(k)) { continue; }
+            Recipe r = chunk.get(k);
+            delta.add(r.getAuthorType(), r.getSeason());
+            listeners.forEach(l -> l.onSaved(r));
+            results[positions.get(k)] = BulkItemResult.created(positions.get(k), r.getSeq());
+        }
+    }
+    private String validate(RecipeInput in) {
+        if (in == null) { return "recipe is required"; }
+        Set<ConstraintViolation<RecipeInput>> violations = validator.validate(in);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(v -> v.getPropertyPath() + ": " + v.getMessage()).sorted().collect(Collectors.joining("; "));
+        }
+        try {
+            RecipeService.ensureParticipantSeason(in);
+            return null;
+        } catch (ApiException ex) {
+            return ex.getMessage();
+        }
+    }
+}
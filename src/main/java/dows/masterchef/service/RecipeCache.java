@@ -0,0 +1,82 @@
+package dows.masterchef.service;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dows.masterchef.model.Recipe;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+// Caché read-through de recetas por seq. Las escrituras de esta instancia la refrescan (onSaved) o invalidan
+// (onDeleted); las de otras instancias se ven como mucho tras ttl. max-size=0 la desactiva.
+// Es asíncrona para que la carga desde Mongo no se haga dentro del compute del mapa: ese compute es synchronized y con
+// hilos virtuales dejaría el hilo portador bloqueado (pinned) toda la consulta. Las cargas concurrentes del mismo seq
+// comparten el mismo futuro y un borrado durante la carga la invalida igual que con la caché síncrona.
+@Component
+public class RecipeCache implements RecipeChangeListener {
+    private final AsyncCache<Long, Recipe> cache;
+    public RecipeCache(@Value("${masterchef.cache.recipes.max-size:10000}") long maxSize,
+                       @Value("${masterchef.cache.recipes.ttl:PT10M}") Duration ttl) {
+        this.cache = maxSize > 0 ? Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().buildAsync() : null;
+    }
+    public static RecipeCache disabled() { return new RecipeCache(0, Duration.ZERO); }
+    public Optional<Recipe> get(long seq, LongFunction<Optional<Recipe>> loader) {
+        if (cache == null) { return loader.apply(seq); }
+        // getIfPresent cuenta el acierto o el fallo; la carga la hace quien consigue registrar su futuro, en su hilo
+        CompletableFuture<Recipe> cached = cache.getIfPresent(seq);
+        if (cached == null) {
+            CompletableFuture<Recipe> loading = new CompletableFuture<>();
+            cached = cache.asMap().putIfAbsent(seq, loading);
+            if (cached == null) {
+                cached = loading;
+                // Un futuro con null o con error sale solo de la caché: las recetas que no existen no se guardan
+                try { loading.complete(loader.apply(seq).orElse(null)); } catch (RuntimeException ex) { loading.completeExceptionally(ex); }
+            }
+        }
+        return Optional.ofNullable(join(cached));
+    }
+    // Las que no están en caché se cargan todas con una sola llamada a loader; las que no devuelve (no existen) no se guardan
+    public Map<Long, Recipe> getAll(Collection<Long> seqs, Function<Set<? extends Long>, Map<Long, Recipe>> loader) {
+        if (cache == null) { return loader.apply(new LinkedHashSet<>(seqs)); }
+        // La carga por lotes de Caffeine no se hace dentro de compute: el loader corre en este hilo y recibe los que
+        // faltan en el orden pedido
+        return join(cache.getAll(seqs, (missing, executor) -> {
+            Set<Long> ordered = new LinkedHashSet<>(seqs);
+            ordered.retainAll(missing);
+            try { return CompletableFuture.completedFuture(loader.apply(ordered)); } catch (RuntimeException ex) { return CompletableFuture.failedFuture(ex); }
+        }));
+    }
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) { throw cause; }
+            throw ex;
+        }
+    }
+    @Override
+    public void onSaved(Recipe recipe) { if (cache != null) { cache.put(recipe.getSeq(), CompletableFuture.completedFuture(recipe)); } }
+    @Override
+    public void onDeleted(long seq) { if (cache != null) { cache.synchronous().invalidate(seq); } }
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", cache != null);
+        if (cache == null) { return out; }
+        CacheStats s = cache.synchronous().stats();
+        out.put("size", cache.synchronous().estimatedSize());
+        out.put("hits", s.hitCount());
+        out.put("misses", s.missCount());
+        out.put("hitRate", s.hitRate());
+        out.put("evictions", s.evictionCount());
+        return out;
+    }
+}
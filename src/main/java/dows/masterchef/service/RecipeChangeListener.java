@@ -0,0 +1,7 @@
+package dows.masterchef.service;
+import dows.masterchef.model.Recipe;
+// Estructuras en memoria que RecipeService mantiene al día tras cada escritura confirmada en Mongo
+public interface RecipeChangeListener {
+    default void onSaved(Recipe recipe) { }
+    default void onDeleted(long seq) { }
+}
@@ -0,0 +1,45 @@
+package dows.masterchef.service;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.repository.RecipeRepository;
+import io.micrometer.core.annotation.Timed;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+@Service
+@Timed(value = "masterchef.service", histogram = true)
+public class RecipeExportService {
+    static final int BUFFER_SIZE = 16 * 1024;
+    private final RecipeRepository repo;
+    private final ObjectWriter writer;
+    public RecipeExportService(RecipeRepository repo, ObjectMapper mapper) {
+        this.repo = repo; this.writer = mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+    private Stream<Recipe> open(AuthorType type, Integer season) {
+        if (type != null && season != null) { return repo.streamAllByAuthorTypeAndSeasonOrderBySeqAsc(type, season); }
+        if (type != null) { return repo.streamAllByAuthorTypeOrderBySeqAsc(type); }
+        if (season != null) { return repo.streamAllBySeasonOrderBySeqAsc(season); }
+        return repo.streamAllByOrderBySeqAsc();
+    }
+    // NDJSON: una receta por línea, escrita según llega del cursor; el único buffer es el de salida
+    public long exportNdjson(AuthorType type, Integer season, OutputStream target) throws IOException {
+        long count = 0;
+        BufferedOutputStream out = new BufferedOutputStream(target, BUFFER_SIZE);
+        try (Stream<Recipe> recipes = open(type, season)) {
+            Iterator<Recipe> it = recipes.iterator();
+            while (it.hasNext()) {
+                writer.writeValue(out, it.next());
+                out.write('\n');
+                count++;
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
@@ -0,0 +1,107 @@
+package dows.masterchef.service;
+import dows.masterchef.dto.PantryMatch;
+import dows.masterchef.dto.RecipePage;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.dto.RecipeTextMatch;
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.repository.RecipeRepository;
+import dows.masterchef.search.IngredientIndex;
+import io.micrometer.core.annotation.Timed;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+@Service
+@Timed(value = "masterchef.service", histogram = true)
+public class RecipeSearchService {
+    private final RecipeRepository repo;
+    private final IngredientIndex ingredientIndex;
+    public RecipeSearchService(RecipeRepository repo, IngredientIndex ingredientIndex) {
+        this.repo = repo; this.ingredientIndex = ingredientIndex;
+    }
+    public RecipePage<RecipeSummary> byIngredients(List<String> allOf, List<String> anyOf, List<String> noneOf, String after, Integer limit) {
+        if (isEmpty(allOf) && isEmpty(anyOf) && isEmpty(noneOf)) {
+            throw new ApiException(400, "at least one of all, any or none is required");
+        }
+        int size = RecipePage.pageSize(limit);
+        return resolve(ingredientIndex.match(allOf, anyOf, noneOf), RecipePage.decodeCursor(after), size);
+    }
+    // Recorre el bitmap desde el cursor y sólo pide a Mongo los seq de la página
+    RecipePage<RecipeSummary> resolve(Roaring64Bitmap matches, long after, int size) {
+        List<Long> seqs = new ArrayList<>(size + 1);
+        PeekableLongIterator it = matches.getLongIteratorFrom(after + 1);
+        while (it.hasNext() && seqs.size() <= size) { seqs.add(it.next()); }
+        String next = null;
+        if (seqs.size() > size) {
+            seqs = seqs.subList(0, size);
+            next = RecipePage.encodeCursor(seqs.get(size - 1));
+        }
+        List<RecipeSummary> items = seqs.isEmpty() ? List.of() : repo.findAllBySeqInOrderBySeqAsc(seqs, RecipeSummary.class);
+        return new RecipePage<>(items, next);
+    }
+    // by-ingredient tolerante a erratas, resuelto sólo con el índice en memoria; como mucho RecipePage.MAX_SIZE recetas por seq
+    public List<RecipeSummary> fuzzyByIngredient(String ingredient) {
+        if (!StringUtils.hasText(ingredient)) { throw new ApiException(400, "ingredient query param is required"); }
+        return resolve(ingredientIndex.fuzzy(ingredient), 0L, RecipePage.MAX_SIZE).getItems();
+    }
+    public List<PantryMatch> pantry(List<String> have, int maxMissing, Integer limit) {
+        if (isEmpty(have)) { throw new ApiException(400, "have query param is required"); }
+        if (maxMissing < 0) { throw new ApiException(400, "maxMissing must be >= 0"); }
+        List<IngredientIndex.PantryCandidate> candidates = ingredientIndex.pantry(have, maxMissing, RecipePage.pageSize(limit));
+        if (candidates.isEmpty()) { return List.of(); }
+        Map<Long, RecipeSummary> bySeq = repo.findAllBySeqInOrderBySeqAsc(candidates.stream().map(IngredientIndex.PantryCandidate::seq).toList(), RecipeSummary.class)
+                .stream().collect(Collectors.toMap(RecipeSummary::getSeq, Function.identity()));
+        List<PantryMatch> out = new ArrayList<>(candidates.size());
+        for (IngredientIndex.PantryCandidate c : candidates) {
+            RecipeSummary r = bySeq.get(c.seq());
+            if (r != null) { out.add(new PantryMatch(r, c.missing(), c.missingIngredients())); }
+        }
+        return out;
+    }
+    // Título, pasos e ingredientes por relevancia (índice de texto en español: "hornear" encuentra "horno"). El cursor es la
+    // relevancia y el seq de la última receta: la página siguiente sigue donde quedó aunque haya empates.
+    public RecipePage<RecipeSummary> text(String q, String after, Integer limit) {
+        if (!StringUtils.hasText(q)) { throw new ApiException(400, "q query param is required"); }
+        int size = RecipePage.pageSize(limit);
+        TextCursor cursor = TextCursor.decode(after);
+        List<RecipeTextMatch> fetched = repo.searchText(q.trim(), cursor == null ? null : cursor.score(), cursor == null ? 0L : cursor.seq(), size + 1);
+        String next = null;
+        if (fetched.size() > size) {
+            fetched = fetched.subList(0, size);
+            RecipeTextMatch last = fetched.get(size - 1);
+            next = new TextCursor(last.getScore(), last.getSeq()).encode();
+        }
+        return new RecipePage<>(fetched.stream().map(RecipeTextMatch::summary).toList(), next);
+    }
+    record TextCursor(double score, long seq) {
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString((score + ":" + seq).getBytes(StandardCharsets.UTF_8));
+        }
+        static TextCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) { return null; }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+                if (parts.length != 2) { throw new IllegalArgumentException(); }
+                return new TextCursor(Double.parseDouble(parts[0]), Long.parseLong(parts[1]));
+            } catch (IllegalArgumentException ex) {
+                throw new ApiException(400, "invalid cursor");
+            }
+        }
+    }
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    // Autocompletado: sólo memoria (trie del índice de ingredientes), nunca consulta Mongo
+    public List<IngredientIndex.Suggestion> suggestIngredients(String prefix, Integer limit) {
+        if (!StringUtils.hasText(prefix)) { throw new ApiException(400, "prefix query param is required"); }
+        int max = IngredientIndex.MAX_SUGGESTIONS;
+        if (limit != null && (limit < 1 || limit > max)) { throw new ApiException(400, "limit must be between 1 and " + max); }
+        return ingredientIndex.suggest(prefix, limit == null ? DEFAULT_SUGGESTIONS : limit);
+    }
+    private static boolean isEmpty(List<String> terms) { return terms == null || terms.isEmpty(); }
+}
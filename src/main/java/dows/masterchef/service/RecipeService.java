@@ -1,59 +1,253 @@
 package dows.masterchef.service;
+import dows.masterchef.dto.RecipeBatch;
 import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.dto.RecipePage;
+import dows.masterchef.dto.RecipePatch;
+import dows.masterchef.dto.RecipeSummary;
 import dows.masterchef.exception.ApiException;
 import dows.masterchef.model.AuthorType;
 import dows.masterchef.model.Recipe;
+import dows.masterchef.model.RecipeStats;
 import dows.masterchef.repository.RecipeRepository;
+import dows.masterchef.repository.RecipeRepositoryCustom.LookupField;
+import dows.masterchef.search.Ingredients;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 @Service
+@Timed(value = "masterchef.service", histogram = true)
 public class RecipeService {
     private final RecipeRepository repo;
     private final SequenceService sequenceService;
-    public RecipeService(RecipeRepository repo, SequenceService sequenceService) {
-        this.repo = repo; this.sequenceService = sequenceService;
+    private final List<RecipeChangeListener> listeners;
+    private final RecipeCache cache;
+    private final RecipeStatsService stats;
+    private final int conflictRetries;
+    private final RecipeWriteCoalescer coalescer;
+    public RecipeService(RecipeRepository repo, SequenceService sequenceService) { this(repo, sequenceService, List.of(), RecipeCache.disabled()); }
+    public RecipeService(RecipeRepository repo, SequenceService sequenceService, List<RecipeChangeListener> listeners, RecipeCache cache) {
+        this(repo, sequenceService, listeners, cache, RecipeStatsService.disabled(), 2);
     }
-    private void ensureParticipantSeason(RecipeInput in) {
+    // La caché también es un RecipeChangeListener: llega en listeners y se refresca con cada escritura
+    public RecipeService(RecipeRepository repo, SequenceService sequenceService, List<RecipeChangeListener> listeners, RecipeCache cache,
+                         RecipeStatsService stats, int conflictRetries) {
+        this(repo, sequenceService, listeners, cache, stats, conflictRetries, RecipeWriteCoalescer.disabled());
+    }
+    @Autowired
+    public RecipeService(RecipeRepository repo, SequenceService sequenceService, List<RecipeChangeListener> listeners, RecipeCache cache,
+                         RecipeStatsService stats, @Value("${masterchef.writes.conflict-retries:2}") int conflictRetries,
+                         RecipeWriteCoalescer coalescer) {
+        this.repo = repo; this.sequenceService = sequenceService; this.listeners = listeners; this.cache = cache; this.stats = stats;
+        this.conflictRetries = conflictRetries; this.coalescer = coalescer;
+    }
+    private Recipe saved(Recipe recipe) {
+        listeners.forEach(l -> l.onSaved(recipe));
+        return recipe;
+    }
+    static void ensureParticipantSeason(RecipeInput in) {
         if (in.getAuthorType() == AuthorType.PARTICIPANT && in.getSeason() == null) {
             throw new ApiException(400, "season is required when authorType is participant");
         }
     }
-    public Recipe create(RecipeInput in) {
-        ensureParticipantSeason(in);
+    static Recipe newRecipe(RecipeInput in, long seq) {
         Recipe r = new Recipe();
-        r.setSeq(Long.valueOf(sequenceService.getNextSequence("recipes")));
+        r.setSeq(Long.valueOf(seq));
         r.setTitle(in.getTitle());
         r.setIngredients(in.getIngredients());
+        r.setIngredientTokens(Ingredients.tokens(in.getIngredients()));
         r.setSteps(in.getSteps());
         r.setChefName(in.getChefName());
         r.setAuthorType(in.getAuthorType());
         r.setSeason(in.getSeason());
-        return repo.save(r);
+        return r;
+    }
+    // insertMany por bulkOps no inicializa @Version como save/insert; y con la versión ya puesta la auditoría la toma por
+    // una receta existente y sólo rellena updatedAt, así que createdAt también se pone aquí
+    static Recipe forInsertMany(Recipe r, Instant now) {
+        r.setVersion(Long.valueOf(0L));
+        r.setCreatedAt(now);
+        r.setUpdatedAt(now);
+        return r;
+    }
+    public Recipe create(RecipeInput in) {
+        ensureParticipantSeason(in);
+        // Con group commit el seq, el insert y las estadísticas se escriben con el lote de altas concurrentes
+        if (coalescer.isEnabled()) { return saved(coalescer.insert(newRecipe(in, 0L))); }
+        Recipe created = repo.save(newRecipe(in, sequenceService.getNextSequence("recipes")));
+        stats.apply(new RecipeStatsService.Delta().add(created.getAuthorType(), created.getSeason()));
+        return saved(created);
+    }
+    // Se pide una receta de más para saber si hay página siguiente sin contar la colección
+    static RecipePage<RecipeSummary> page(List<RecipeSummary> fetched, int size) {
+        if (fetched.size() <= size) { return new RecipePage<>(fetched, null); }
+        List<RecipeSummary> items = fetched.subList(0, size);
+        return new RecipePage<>(items, RecipePage.encodeCursor(items.get(size - 1).getSeq()));
+    }
+    public RecipePage<RecipeSummary> findAll(String after, Integer limit) {
+        int size = RecipePage.pageSize(limit);
+        return page(repo.findAllBySeqGreaterThanOrderBySeqAsc(RecipePage.decodeCursor(after), Limit.of(size + 1)), size);
     }
-    public List<Recipe> findAll() { return repo.findAllByOrderBySeqAsc(); }
     public Recipe findBySeq(long seq) {
-        return repo.findBySeq(Long.valueOf(seq)).orElseThrow(() -> new ApiException(404, "Recipe not found"));
+        return cache.get(seq, s -> repo.findBySeq(Long.valueOf(s))).orElseThrow(RecipeService::notFound);
+    }
+    // update modifica la entidad leída: nunca debe ser la instancia compartida de la caché
+    private Recipe loadForWrite(long seq) {
+        return repo.findBySeq(Long.valueOf(seq)).orElseThrow(RecipeService::notFound);
+    }
+    private static ApiException notFound() { return new ApiException(404, "Recipe not found"); }
+    private static ApiException preconditionFailed() { return new ApiException(412, "recipe version does not match If-Match"); }
+    // Varias recetas en una petición: primero la caché y las que falten con un único $in. En el orden pedido y sin repetir;
+    // los seq que no existen van en missing.
+    public RecipeBatch findAllBySeq(List<Long> seqs) {
+        if (seqs == null || seqs.isEmpty()) { throw new ApiException(400, "at least one seq is required"); }
+        if (seqs.size() > RecipeBatch.MAX_SEQS) { throw new ApiException(400, "at most " + RecipeBatch.MAX_SEQS + " seqs per request"); }
+        if (seqs.stream().anyMatch(Objects::isNull)) { throw new ApiException(400, "invalid seq"); }
+        Set<Long> unique = new LinkedHashSet<>(seqs);
+        Map<Long, Recipe> found = cache.getAll(unique, missing -> repo.findAllBySeqInOrderBySeqAsc(new ArrayList<>(missing), Recipe.class).stream()
+                .collect(Collectors.toMap(Recipe::getSeq, Function.identity())));
+        List<Recipe> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long seq : unique) {
+            Recipe r = found.get(seq);
+            if (r != null) { items.add(r); } else { missing.add(seq); }
+        }
+        return new RecipeBatch(items, missing);
+    }
+    public Map<String, Object> cacheStats() { return cache.stats(); }
+    public RecipeStats stats() { return stats.stats(); }
+    public RecipeStats reconcileStats() { return stats.reconcile(); }
+    public RecipePage<RecipeSummary> byType(AuthorType type, String after, Integer limit) {
+        int size = RecipePage.pageSize(limit);
+        return page(repo.findAllByAuthorTypeAndSeqGreaterThanOrderBySeqAsc(type, RecipePage.decodeCursor(after), Limit.of(size + 1)), size);
     }
-    public List<Recipe> byType(AuthorType type) { return repo.findAllByAuthorTypeOrderBySeqAsc(type); }
-    public List<Recipe> bySeason(int season) { return repo.findAllByAuthorTypeAndSeasonOrderBySeqAsc(AuthorType.PARTICIPANT, Integer.valueOf(season)); }
-    public List<Recipe> searchByIngredient(String ingredient) {
+    public RecipePage<RecipeSummary> bySeason(int season, String after, Integer limit) {
+        int size = RecipePage.pageSize(limit);
+        return page(repo.findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(AuthorType.PARTICIPANT, Integer.valueOf(season),
+                RecipePage.decodeCursor(after), Limit.of(size + 1)), size);
+    }
+    public List<RecipeSummary> searchByIngredient(String ingredient) {
         if (!StringUtils.hasText(ingredient)) { throw new ApiException(400, "ingredient query param is required"); }
-        return repo.searchByIngredientRegex(ingredient);
+        List<String> tokens = Ingredients.tokens(ingredient);
+        if (tokens.isEmpty()) { return List.of(); }
+        return repo.searchByIngredientTokens(tokens);
+    }
+    // Igualdad o prefijo sin mayúsculas ni tildes sobre exactamente uno de título, cocinero o ingrediente (índices con collation)
+    public RecipePage<RecipeSummary> lookup(String title, String chefName, String ingredient, boolean prefix, String after, Integer limit) {
+        Map<LookupField, String> given = new EnumMap<>(LookupField.class);
+        if (StringUtils.hasText(title)) { given.put(LookupField.TITLE, title.trim()); }
+        if (StringUtils.hasText(chefName)) { given.put(LookupField.CHEF_NAME, chefName.trim()); }
+        if (StringUtils.hasText(ingredient)) { given.put(LookupField.INGREDIENT, ingredient.trim()); }
+        if (given.size() != 1) { throw new ApiException(400, "exactly one of title, chefName or ingredient is required"); }
+        Map.Entry<LookupField, String> by = given.entrySet().iterator().next();
+        int size = RecipePage.pageSize(limit);
+        return page(repo.lookup(by.getKey(), by.getValue(), prefix, RecipePage.decodeCursor(after), size + 1), size);
     }
-    public Recipe update(long seq, RecipeInput in) {
+    public Recipe update(long seq, RecipeInput in) { return update(seq, in, null); }
+    // expectedVersion (de If-Match) != null: la escritura sólo se aplica sobre esa versión, si no 412.
+    // Sin If-Match el PUT reemplaza todos los campos sin depender de lo leído, así que ante una escritura concurrente
+    // se vuelve a leer y aplicar hasta conflictRetries veces antes de responder 409.
+    public Recipe update(long seq, RecipeInput in, Long expectedVersion) {
         ensureParticipantSeason(in);
-        Recipe existing = findBySeq(seq);
-        existing.setTitle(in.getTitle());
-        existing.setIngredients(in.getIngredients());
-        existing.setSteps(in.getSteps());
-        existing.setChefName(in.getChefName());
-        existing.setAuthorType(in.getAuthorType());
-        existing.setSeason(in.getSeason());
-        return repo.save(existing);
-    }
-    public void delete(long seq) {
-        Recipe existing = findBySeq(seq);
-        repo.delete(existing);
+        for (int attempt = 0; ; attempt++) {
+            Recipe existing = loadForWrite(seq);
+            if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) { throw preconditionFailed(); }
+            RecipeStatsService.Delta delta = new RecipeStatsService.Delta().remove(existing.getAuthorType(), existing.getSeason());
+            existing.setTitle(in.getTitle());
+            existing.setIngredients(in.getIngredients());
+            existing.setIngredientTokens(Ingredients.tokens(in.getIngredients()));
+            existing.setSteps(in.getSteps());
+            existing.setChefName(in.getChefName());
+            existing.setAuthorType(in.getAuthorType());
+            existing.setSeason(in.getSeason());
+            try {
+                Recipe updated = repo.save(existing);
+                stats.apply(delta.add(updated.getAuthorType(), updated.getSeason()));
+                return saved(updated);
+            } catch (OptimisticLockingFailureException ex) {
+                if (expectedVersion != null) { throw preconditionFailed(); }
+                if (attempt >= conflictRetries) { throw new ApiException(409, "recipe was modified concurrently"); }
+            }
+        }
+    }
+    // Un solo findAndModify con $set de los campos presentes (sin leer ni reescribir el documento completo).
+    // Pasar a PARTICIPANT sin season sólo se aplica si la receta ya tiene season: la regla va en el filtro.
+    public Recipe patch(long seq, RecipePatch patch) { return patch(seq, patch, null); }
+    public Recipe patch(long seq, RecipePatch patch, Long expectedVersion) {
+        if (patch.isEmpty()) { throw new ApiException(400, "no fields to update"); }
+        Instant now = Instant.now();
+        Update update = new Update();
+        if (patch.getTitle() != null) { update.set("title", patch.getTitle()); }
+        if (patch.getIngredients() != null) {
+            update.set("ingredients", patch.getIngredients());
+            update.set("ingredientTokens", Ingredients.tokens(patch.getIngredients()));
+        }
+        if (patch.getSteps() != null) { update.set("steps", patch.getSteps()); }
+        if (patch.getChefName() != null) { update.set("chefName", patch.getChefName()); }
+        if (patch.getAuthorType() != null) { update.set("authorType", patch.getAuthorType()); }
+        if (patch.getSeason() != null) { update.set("season", patch.getSeason()); }
+        // findAndModify no pasa por la auditoría ni por el @Version de Spring Data
+        update.set("updatedAt", now);
+        update.inc("version", 1);
+        List<Criteria> guards = new ArrayList<>();
+        if (patch.getAuthorType() == AuthorType.PARTICIPANT && patch.getSeason() == null) { guards.add(Criteria.where("season").ne(null)); }
+        if (expectedVersion != null) { guards.add(Criteria.where("version").is(expectedVersion)); }
+        Criteria guard = guards.isEmpty() ? null : guards.size() == 1 ? guards.get(0) : new Criteria().andOperator(guards);
+        // Si cambia authorType o season, las estadísticas necesitan la clasificación anterior: el mismo findAndModify
+        // devuelve el documento de antes y el resultado se obtiene aplicándole el parche en memoria
+        boolean reclassifies = patch.getAuthorType() != null || patch.getSeason() != null;
+        Optional<Recipe> modified = repo.findAndModifyBySeq(seq, guard, update, !reclassifies);
+        if (modified.isEmpty()) {
+            if (guard == null) { throw notFound(); }
+            // Sólo en el camino de error: se lee la receta para distinguir 404, 412 y 400
+            Recipe current = repo.findBySeq(Long.valueOf(seq)).orElseThrow(RecipeService::notFound);
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) { throw preconditionFailed(); }
+            throw new ApiException(400, "season is required when authorType is participant");
+        }
+        if (!reclassifies) { return saved(modified.get()); }
+        Recipe recipe = modified.get();
+        RecipeStatsService.Delta delta = new RecipeStatsService.Delta().remove(recipe.getAuthorType(), recipe.getSeason());
+        applyPatch(recipe, patch, now);
+        stats.apply(delta.add(recipe.getAuthorType(), recipe.getSeason()));
+        return saved(recipe);
+    }
+    // Lo mismo que el $set/$inc de patch sobre el documento anterior
+    private static void applyPatch(Recipe recipe, RecipePatch patch, Instant now) {
+        if (patch.getTitle() != null) { recipe.setTitle(patch.getTitle()); }
+        if (patch.getIngredients() != null) {
+            recipe.setIngredients(patch.getIngredients());
+            recipe.setIngredientTokens(Ingredients.tokens(patch.getIngredients()));
+        }
+        if (patch.getSteps() != null) { recipe.setSteps(patch.getSteps()); }
+        if (patch.getChefName() != null) { recipe.setChefName(patch.getChefName()); }
+        if (patch.getAuthorType() != null) { recipe.setAuthorType(patch.getAuthorType()); }
+        if (patch.getSeason() != null) { recipe.setSeason(patch.getSeason()); }
+        recipe.setUpdatedAt(now);
+        recipe.setVersion(recipe.getVersion() == null ? 1L : recipe.getVersion() + 1);
+    }
+    public void delete(long seq) { delete(seq, null); }
+    public void delete(long seq, Long expectedVersion) {
+        Optional<Recipe> deleted = expectedVersion == null ? repo.deleteBySeq(Long.valueOf(seq)) : repo.deleteBySeqAndVersion(Long.valueOf(seq), expectedVersion);
+        if (deleted.isEmpty()) {
+            throw expectedVersion != null && repo.existsBySeq(Long.valueOf(seq)) ? preconditionFailed() : notFound();
+        }
+        stats.apply(new RecipeStatsService.Delta().remove(deleted.get().getAuthorType(), deleted.get().getSeason()));
+        listeners.forEach(l -> l.onDeleted(seq));
     }
 }
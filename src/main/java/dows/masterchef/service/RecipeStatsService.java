@@ -0,0 +1,92 @@
+package dows.masterchef.service;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.model.RecipeStats;
+import io.micrometer.core.annotation.Timed;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+// Cada escritura de recetas aplica su diferencia al documento de recipe_stats con un único $inc (upsert) y GET /stats
+// lo lee por _id: coste constante sea cual sea el tamaño de recipes. La receta y el contador no se escriben en una
+// transacción; reconcile() rehace el documento con una agregación si algo se desvía (fallo entre ambas escrituras,
+// borrados masivos concurrentes).
+@Service
+@Timed(value = "masterchef.service", histogram = true)
+public class RecipeStatsService {
+    static final String ID = "recipes";
+    private final MongoOperations mongo;
+    public RecipeStatsService(MongoOperations mongo) { this.mongo = mongo; }
+    // Para construir RecipeService sin Mongo (tests, benchmarks): las diferencias se descartan
+    public static RecipeStatsService disabled() { return new RecipeStatsService(null); }
+    static Query byId() { return new Query(Criteria.where("_id").is(ID)); }
+    public void apply(Delta delta) {
+        if (mongo == null || delta.isEmpty()) { return; }
+        mongo.upsert(byId(), delta.toUpdate(), RecipeStats.class);
+    }
+    public boolean exists() { return mongo.exists(byId(), RecipeStats.class); }
+    public RecipeStats stats() {
+        RecipeStats stats = mongo.findById(ID, RecipeStats.class);
+        return stats == null ? new RecipeStats(ID) : normalized(stats);
+    }
+    // Un solo recorrido de recipes ($facet): por authorType y, sólo participantes, por temporada.
+    // Un $inc que llegue mientras corre la agregación puede perderse hasta la siguiente reconciliación.
+    public RecipeStats reconcile() {
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.facet(Aggregation.group("authorType").count().as("count")).as("byAuthorType")
+                .and(Aggregation.match(Criteria.where("authorType").is(AuthorType.PARTICIPANT).and("season").ne(null)),
+                        Aggregation.group("season").count().as("count")).as("bySeason"));
+        Document result = mongo.aggregate(aggregation, Recipe.class, Document.class).getUniqueMappedResult();
+        RecipeStats stats = new RecipeStats(ID);
+        long total = 0;
+        for (Document group : result.getList("byAuthorType", Document.class)) {
+            long count = ((Number) group.get("count")).longValue();
+            total += count;
+            if (group.get("_id") != null) { stats.getByAuthorType().put(group.get("_id").toString(), count); }
+        }
+        for (Document group : result.getList("bySeason", Document.class)) {
+            stats.getBySeason().put(group.get("_id").toString(), ((Number) group.get("count")).longValue());
+        }
+        stats.setTotal(total);
+        stats.setReconciledAt(Instant.now());
+        return normalized(mongo.save(stats));
+    }
+    // Sin las claves que los $inc han dejado a 0 y con las temporadas en orden numérico
+    static RecipeStats normalized(RecipeStats stats) {
+        stats.setByAuthorType(positive(stats.getByAuthorType(), new TreeMap<>()));
+        stats.setBySeason(positive(stats.getBySeason(), new TreeMap<>(Comparator.comparing(Integer::valueOf))));
+        return stats;
+    }
+    private static Map<String, Long> positive(Map<String, Long> counts, TreeMap<String, Long> out) {
+        if (counts != null) { counts.forEach((k, v) -> { if (v != null && v > 0) { out.put(k, v); } }); }
+        return new LinkedHashMap<>(out);
+    }
+    // Diferencia de una o varias escrituras: +1 por cada receta que entra en una clasificación y -1 por cada una que sale
+    public static final class Delta {
+        private final Map<String, Long> inc = new TreeMap<>();
+        public static Delta changed(Recipe before, Recipe after) {
+            return new Delta().remove(before.getAuthorType(), before.getSeason()).add(after.getAuthorType(), after.getSeason());
+        }
+        public Delta add(AuthorType type, Integer season) { return count(type, season, 1); }
+        public Delta remove(AuthorType type, Integer season) { return count(type, season, -1); }
+        private Delta count(AuthorType type, Integer season, long n) {
+            inc.merge("total", n, Long::sum);
+            if (type != null) { inc.merge("byAuthorType." + type.name(), n, Long::sum); }
+            if (type == AuthorType.PARTICIPANT && season != null) { inc.merge("bySeason." + season, n, Long::sum); }
+            return this;
+        }
+        boolean isEmpty() { return inc.values().stream().allMatch(v -> v == 0); }
+        Update toUpdate() {
+            Update update = new Update();
+            inc.forEach((field, n) -> { if (n != 0) { update.inc(field, n); } });
+            return update;
+        }
+    }
+}
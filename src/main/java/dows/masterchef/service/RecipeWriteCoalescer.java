@@ -0,0 +1,162 @@
+package dows.masterchef.service;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.repository.RecipeRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+// Group commit de las altas de una en una: las que llegan a la vez a RecipeService.create se juntan durante como mucho
+// max-delay (o hasta max-batch) y cada lote cuesta un único $inc del contador, un insertMany y un $inc de estadísticas
+// en vez de tres escrituras por receta. Cada llamador espera sólo a su lote; mientras un flusher escribe, otro va
+// llenando el siguiente, así que con carga los lotes crecen solos. Desactivado, create() escribe cada receta por separado.
+@Component
+public class RecipeWriteCoalescer {
+    private static final Logger log = LoggerFactory.getLogger(RecipeWriteCoalescer.class);
+    private record Pending(Recipe recipe, CompletableFuture<Recipe> done) { }
+    private final RecipeRepository repo;
+    private final SequenceService sequenceService;
+    private final RecipeStatsService stats;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final long timeoutNanos;
+    private final BlockingQueue<Pending> queue;
+    private final List<Thread> flushers = new ArrayList<>();
+    private volatile boolean running;
+    public static RecipeWriteCoalescer disabled() { return new RecipeWriteCoalescer(null, null, null, false, 1, Duration.ZERO, 1, Duration.ZERO); }
+    public RecipeWriteCoalescer(RecipeRepository repo, SequenceService sequenceService, RecipeStatsService stats,
+                                @Value("${masterchef.writes.coalesce.enabled:false}") boolean enabled,
+                                @Value("${masterchef.writes.coalesce.max-batch:256}") int maxBatch,
+                                @Value("${masterchef.writes.coalesce.max-delay:PT0.002S}") Duration maxDelay,
+                                @Value("${masterchef.writes.coalesce.flushers:2}") int flushers,
+                                @Value("${masterchef.writes.coalesce.timeout:PT10S}") Duration timeout) {
+        if (maxBatch < 1 || flushers < 1) { throw new IllegalArgumentException("masterchef.writes.coalesce.max-batch and flushers must be >= 1"); }
+        this.repo = repo; this.sequenceService = sequenceService; this.stats = stats;
+        this.maxBatch = maxBatch; this.maxDelayNanos = maxDelay.toNanos(); this.timeoutNanos = timeout.toNanos();
+        // Acotada: con Mongo caído los llamadores se bloquean en put() en vez de acumular recetas sin límite
+        this.queue = new ArrayBlockingQueue<>(maxBatch * flushers * 4);
+        this.running = enabled;
+        if (enabled) {
+            for (int i = 0; i < flushers; i++) { this.flushers.add(Thread.ofPlatform().daemon().name("recipe-coalescer-" + i).start(this::run)); }
+        }
+    }
+    public boolean isEnabled() { return running; }
+    // Asigna seq a recipe y la inserta con su lote; devuelve la misma receta o lanza el error de su inserción
+    public Recipe insert(Recipe recipe) {
+        if (!running) { throw new ApiException(503, "recipe writes are shutting down"); }
+        Pending pending = new Pending(recipe, new CompletableFuture<>());
+        try {
+            queue.put(pending);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "interrupted while queueing the recipe");
+        }
+        // close() pudo vaciar la cola justo antes del put: nadie la escribiría
+        if (!running && queue.remove(pending)) { throw new ApiException(503, "recipe writes are shutting down"); }
+        // Espera acotada: si los flushers no responden (Mongo colgado), 503 en vez de bloquear el hilo de la petición.
+        // Si sigue en cola ya no se escribe; si su lote ya se está escribiendo, la receta puede quedar creada igualmente.
+        try {
+            return pending.done().orTimeout(timeoutNanos, TimeUnit.NANOSECONDS).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof TimeoutException) {
+                queue.remove(pending);
+                throw new ApiException(503, "timed out waiting for the recipe write");
+            }
+            if (ex.getCause() instanceof RuntimeException cause) { throw cause; }
+            throw ex;
+        }
+    }
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        try {
+            while (running) {
+                // Sin take(): close() no interrumpe a un flusher que está escribiendo, sólo espera a que vea running = false
+                Pending head = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (head == null) { continue; }
+                batch.add(head);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatch) {
+                    // Lo que ya está en cola entra sin esperar; sólo se espera (hasta deadline) con la cola vacía
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) { continue; }
+                    long left = deadline - System.nanoTime();
+                    Pending next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) { break; }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException ex) {
+            // El lote a medio juntar se escribe igualmente
+            flush(batch);
+        }
+    }
+    void flush(List<Pending> batch) {
+        if (batch.isEmpty()) { return; }
+        try {
+            long first = sequenceService.reserve("recipes", batch.size()) - batch.size() + 1;
+            List<Recipe> recipes = new ArrayList<>(batch.size());
+            Instant now = Instant.now();
+            for (int k = 0; k < batch.size(); k++) {
+                Recipe r = batch.get(k).recipe();
+                r.setSeq(Long.valueOf(first + k));
+                recipes.add(RecipeService.forInsertMany(r, now));
+            }
+            Set<Integer> failed = new HashSet<>();
+            for (BulkWriteError error : repo.insertUnordered(recipes)) {
+                int status = error.getCategory() == ErrorCategory.DUPLICATE_KEY ? 409 : 500;
+                batch.get(error.getIndex()).done().completeExceptionally(new ApiException(status, error.getMessage()));
+                failed.add(error.getIndex());
+            }
+            RecipeStatsService.Delta delta = new RecipeStatsService.Delta();
+            for (int k = 0; k < recipes.size(); k++) {
+                if (!failed.contains(k)) { delta.add(recipes.get(k).getAuthorType(), recipes.get(k).getSeason()); }
+            }
+            try {
+                stats.apply(delta);
+            } catch (Throwable ex) {
+                // Las recetas ya están escritas: no se devuelve error por los contadores, los corrige la reconciliación
+                log.warn("could not update recipe stats for a batch of {} recipes", recipes.size(), ex);
+            }
+            for (int k = 0; k < recipes.size(); k++) {
+                if (!failed.contains(k)) { batch.get(k).done().complete(recipes.get(k)); }
+            }
+        } catch (Throwable ex) {
+            // También ante un Error: todos los llamadores del lote reciben respuesta y el flusher sigue con el siguiente
+            if (!(ex instanceof RuntimeException)) { log.error("recipe batch of {} failed", batch.size(), ex); }
+            batch.forEach(p -> p.done().completeExceptionally(ex));
+        }
+    }
+    // Los flushers terminan su lote; lo que quede en cola se rechaza
+    @PreDestroy
+    public void close() {
+        if (!running) { return; }
+        running = false;
+        for (Thread t : flushers) {
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(p -> p.done().completeExceptionally(new ApiException(503, "recipe writes are shutting down")));
+    }
+}
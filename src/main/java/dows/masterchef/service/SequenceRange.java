@@ -0,0 +1,10 @@
+package dows.masterchef.service;
+import java.util.concurrent.atomic.AtomicLong;
+// Rango [lo, hi] reservado en el contador y repartido en memoria sin locks
+final class SequenceRange {
+    private final AtomicLong next;
+    private final long hi;
+    SequenceRange(long lo, long hi) { this.next = new AtomicLong(lo); this.hi = hi; }
+    // 0 = rango agotado (los números asignados empiezan en 1)
+    long take() { long v = next.getAndIncrement(); return v <= hi ? v : 0; }
+}
@@ -1,6 +1,11 @@
 package dows.masterchef.service;
 import dows.masterchef.model.Counter;
+import io.micrometer.core.annotation.Timed;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -8,13 +13,53 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 @Service
+@Timed(value = "masterchef.service", histogram = true)
 public class SequenceService {
+    // GAP_FREE: un findAndModify por número. BLOCK (hi/lo): reserva blockSize números de una vez;
+    // los que no se usen antes de parar la instancia se pierden (huecos).
+    public enum Strategy { GAP_FREE, BLOCK }
     private final MongoOperations mongo;
+    private final Strategy strategy;
+    private final int blockSize;
+    private final Map<String, SequenceRange> ranges = new ConcurrentHashMap<>();
+    // ReentrantLock y no synchronized: la recarga hace I/O y un hilo virtual bloqueado en un monitor fija su carrier (Java 21)
+    private final ReentrantLock refillLock = new ReentrantLock();
+    public SequenceService(MongoOperations mongo) { this(mongo, Strategy.GAP_FREE, 1); }
     @Autowired
-    public SequenceService(MongoOperations mongo) { this.mongo = mongo; }
+    public SequenceService(MongoOperations mongo,
+                           @Value("${masterchef.sequence.strategy:GAP_FREE}") Strategy strategy,
+                           @Value("${masterchef.sequence.block-size:50}") int blockSize) {
+        if (blockSize < 1) { throw new IllegalArgumentException("masterchef.sequence.block-size must be >= 1"); }
+        this.mongo = mongo; this.strategy = strategy; this.blockSize = blockSize;
+    }
+    public Strategy getStrategy() { return strategy; }
+    public int getBlockSize() { return blockSize; }
     public long getNextSequence(String name) {
+        if (strategy == Strategy.GAP_FREE) { return reserve(name, 1); }
+        SequenceRange range = ranges.get(name);
+        long value = range == null ? 0 : range.take();
+        if (value > 0) { return value; }
+        return refillAndTake(name);
+    }
+    private long refillAndTake(String name) {
+        refillLock.lock();
+        try {
+            SequenceRange range = ranges.get(name);
+            long value = range == null ? 0 : range.take();
+            if (value > 0) { return value; }
+            long hi = reserve(name, blockSize);
+            range = new SequenceRange(hi - blockSize + 1, hi);
+            ranges.put(name, range);
+            return range.take();
+        } finally {
+            refillLock.unlock();
+        }
+    }
+    // Incrementa el contador en count con una sola operación atómica y devuelve el último número reservado:
+    // el rango asignado es [hi - count + 1, hi].
+    public long reserve(String name, long count) {
         Query query = new Query(Criteria.where("_id").is(name));
-        Update update = new Update();
+        Update update = new Update().inc("seq", count);
         FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true).upsert(true);
         Counter counter = mongo.findAndModify(query, update, options, Counter.class);
         return counter.getSeq();
@@ -0,0 +1,11 @@
+package dows.masterchef.benchmark;
+
+import org.springframework.test.context.TestPropertySource;
+
+// Pool de Tomcat por defecto (200 hilos de plataforma)
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadsBenchmark extends ThreadModeBenchmark {
+
+    @Override
+    String mode() { return "platform"; }
+}
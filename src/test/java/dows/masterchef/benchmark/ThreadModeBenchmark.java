@@ -0,0 +1,122 @@
+package dows.masterchef.benchmark;
+
+import dows.masterchef.config.RecipeIndexes;
+import dows.masterchef.config.RecipeStatsReconciler;
+import dows.masterchef.config.RecipeVersionBackfill;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.repository.RecipeRepository;
+import dows.masterchef.search.IngredientIndexLoader;
+import dows.masterchef.search.IngredientTokenBackfill;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Limit;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Mide peticiones/s contra los endpoints reales (Tomcat + MVC + servicios) con Mongo sustituido por un repositorio
+// que tarda MONGO_LATENCY en responder. Lo ejecutan PlatformThreadsBenchmark y VirtualThreadsBenchmark con -Pbenchmark;
+// la latencia, la concurrencia y el número de peticiones se ajustan con -Dbenchmark.latency-ms/.concurrency/.requests.
+// Con 200 hilos de plataforma el techo es 200 / latencia; con hilos virtuales lo marca la CPU.
+// La caché de GET /{seq} está activa y cada petición pide un seq distinto: todas cargan desde Mongo a través de ella.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+abstract class ThreadModeBenchmark {
+
+    static final Duration MONGO_LATENCY = Duration.ofMillis(Long.getLong("benchmark.latency-ms", 500));
+    static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+    static final int REQUESTS = Integer.getInteger("benchmark.requests", 5000);
+    private static final Map<String, Double> results = new ConcurrentHashMap<>();
+
+    @MockBean private RecipeRepository repo;
+    @MockBean private RecipeIndexes indexes;
+    @MockBean private RecipeVersionBackfill versionBackfill;
+    @MockBean private RecipeStatsReconciler statsReconciler;
+    @MockBean private IngredientTokenBackfill backfill;
+    @MockBean private IngredientIndexLoader indexLoader;
+
+    @LocalServerPort private int port;
+
+    abstract String mode();
+
+    private static <T> T slow(T value) throws InterruptedException {
+        Thread.sleep(MONGO_LATENCY);
+        return value;
+    }
+
+    @Test
+    void throughput() throws Exception {
+        List<RecipeSummary> page = List.of(RecipeSummary.of(recipe(1L)));
+        when(repo.findBySeq(anyLong())).thenAnswer(inv -> slow(Optional.of(recipe(inv.getArgument(0)))));
+        when(repo.findAllBySeqGreaterThanOrderBySeqAsc(anyLong(), any(Limit.class))).thenAnswer(inv -> slow(page));
+
+        HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        URI list = URI.create("http://localhost:" + port + "/api/v1/recipes?limit=1");
+        // Los seq del calentamiento y de la medición no se repiten: ninguna petición acierta en la caché
+        run(http, i -> i % 2 == 0 ? seq(i) : list, CONCURRENCY); // calentamiento
+
+        long start = System.nanoTime();
+        int ok = run(http, i -> i % 2 == 0 ? seq(CONCURRENCY + i) : list, REQUESTS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double rps = REQUESTS / seconds;
+        results.put(mode(), rps);
+        System.out.printf("[benchmark] %s threads: %d requests, concurrency %d, mongo latency %d ms -> %.0f req/s%n",
+                mode(), REQUESTS, CONCURRENCY, MONGO_LATENCY.toMillis(), rps);
+        if (results.size() == 2) {
+            System.out.printf("[benchmark] virtual/platform = %.2fx%n", results.get("virtual") / results.get("platform"));
+        }
+        assertEquals(REQUESTS, ok);
+    }
+
+    private static Recipe recipe(long seq) {
+        Recipe recipe = new Recipe();
+        recipe.setSeq(seq);
+        recipe.setTitle("Arepas");
+        recipe.setAuthorType(AuthorType.VIEWER);
+        return recipe;
+    }
+
+    private URI seq(int seq) {
+        return URI.create("http://localhost:" + port + "/api/v1/recipes/" + (seq + 1));
+    }
+
+    // Como máximo CONCURRENCY peticiones en vuelo
+    private static int run(HttpClient http, IntFunction<URI> uris, int total) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger ok = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int c = 0; c < Math.min(CONCURRENCY, total); c++) {
+                workers.add(clients.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < total; i = next.getAndIncrement()) {
+                        HttpRequest request = HttpRequest.newBuilder(uris.apply(i)).build();
+                        if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) { ok.incrementAndGet(); }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> w : workers) { w.get(); }
+        }
+        return ok.get();
+    }
+}
@@ -0,0 +1,10 @@
+package dows.masterchef.benchmark;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsBenchmark extends ThreadModeBenchmark {
+
+    @Override
+    String mode() { return "virtual"; }
+}
@@ -0,0 +1,103 @@
+package dows.masterchef.config;
+
+import dows.masterchef.model.Recipe;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RecipeIndexesTest {
+
+    private MongoOperations mongo;
+    private IndexOperations ops;
+    private final List<IndexInfo> existing = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        mongo = mock(MongoOperations.class);
+        ops = mock(IndexOperations.class);
+        when(mongo.indexOps(Recipe.class)).thenReturn(ops);
+        when(ops.getIndexInfo()).thenAnswer(a -> new ArrayList<>(existing));
+        when(ops.ensureIndex(any(IndexDefinition.class))).thenAnswer(a -> {
+            IndexDefinition def = a.getArgument(0);
+            Object collation = def.getIndexOptions().get("collation");
+            existing.add(collation != null
+                    ? IndexInfo.indexInfoOf(new Document("key", def.getIndexKeys()).append("name", RecipeIndexes.name(def)).append("collation", collation))
+                    : info(RecipeIndexes.name(def), Boolean.TRUE.equals(def.getIndexOptions().get("unique")), def.getIndexKeys().keySet().toArray(new String[0])));
+            return RecipeIndexes.name(def);
+        });
+    }
+
+    private static IndexInfo info(String name, boolean unique, String... keys) {
+        List<IndexField> fields = java.util.Arrays.stream(keys).map(k -> IndexField.create(k, Sort.Direction.ASC)).collect(Collectors.toList());
+        return new IndexInfo(fields, name, unique, false, null);
+    }
+
+    @Test
+    void create_mode_creates_only_missing_indexes() {
+        existing.add(info("_id_", false, "_id"));
+        existing.add(info("seq", true, "seq"));
+
+        List<String> missing = new RecipeIndexes(mongo, RecipeIndexes.Mode.CREATE, true).apply();
+
+        assertTrue(missing.isEmpty());
+        verify(ops, times(RecipeIndexes.DECLARED.size() - 1)).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void verify_mode_fails_when_an_index_is_missing() {
+        existing.add(info("seq_1", true, "seq"));
+        RecipeIndexes indexes = new RecipeIndexes(mongo, RecipeIndexes.Mode.VERIFY, true);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, indexes::afterSingletonsInstantiated);
+        assertTrue(ex.getMessage().contains("authorType_1_seq_1"));
+        verify(ops, never()).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void verify_mode_can_only_warn() {
+        List<String> missing = new RecipeIndexes(mongo, RecipeIndexes.Mode.VERIFY, false).apply();
+        assertEquals(RecipeIndexes.DECLARED.size(), missing.size());
+    }
+
+    @Test
+    void non_unique_seq_index_does_not_satisfy_declaration() {
+        IndexDefinition seq = RecipeIndexes.DECLARED.get(0);
+        assertFalse(RecipeIndexes.matches(seq, info("seq", false, "seq")));
+        assertTrue(RecipeIndexes.matches(seq, info("seq", true, "seq")));
+        assertFalse(RecipeIndexes.matches(RecipeIndexes.DECLARED.get(1), info("x", false, "seq", "authorType")));
+    }
+
+    @Test
+    void collated_index_requires_the_same_locale_and_strength() {
+        IndexDefinition title = RecipeIndexes.DECLARED.stream().filter(d -> RecipeIndexes.name(d).equals("title_1_seq_1_ci")).findFirst().orElseThrow();
+        Document key = new Document("title", 1).append("seq", 1);
+        assertFalse(RecipeIndexes.matches(title, info("title_1_seq_1_ci", false, "title", "seq")));
+        assertFalse(RecipeIndexes.matches(title, IndexInfo.indexInfoOf(new Document("key", key).append("name", "title_1_seq_1")
+                .append("collation", new Document("locale", "es").append("strength", 1)))));
+        assertTrue(RecipeIndexes.matches(title, IndexInfo.indexInfoOf(new Document("key", key).append("name", "title_1_seq_1")
+                .append("collation", new Document("locale", "en").append("strength", 1).append("caseLevel", false)))));
+    }
+
+    @Test
+    void text_index_matches_any_text_index_on_the_same_fields() {
+        IndexDefinition text = RecipeIndexes.DECLARED.get(RecipeIndexes.DECLARED.size() - 1);
+        assertEquals("spanish", text.getIndexOptions().get("default_language"));
+        List<IndexField> fields = List.of(IndexField.text("ingredients", 1F), IndexField.text("steps", 1F), IndexField.text("title", 3F));
+        assertTrue(RecipeIndexes.matches(text, new IndexInfo(fields, "title_text_steps_text_ingredients_text", false, false, "spanish")));
+        assertFalse(RecipeIndexes.matches(text, new IndexInfo(List.of(IndexField.text("title", 1F)), "title_text", false, false, "spanish")));
+    }
+}
@@ -0,0 +1,27 @@
+package dows.masterchef.config;
+
+import dows.masterchef.model.RecipeStats;
+import dows.masterchef.service.RecipeStatsService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecipeStatsReconcilerTest {
+
+    @Test
+    void startup_builds_the_stats_only_when_missing() {
+        RecipeStatsService stats = mock(RecipeStatsService.class);
+        RecipeStats rebuilt = new RecipeStats("recipes");
+        rebuilt.setTotal(4);
+        when(stats.reconcile()).thenReturn(rebuilt);
+        when(stats.exists()).thenReturn(false, true);
+        RecipeStatsReconciler reconciler = new RecipeStatsReconciler(stats);
+
+        reconciler.run(null);
+        reconciler.run(null);
+
+        verify(stats, times(1)).reconcile();
+        assertSame(rebuilt, reconciler.reconcile());
+    }
+}
@@ -0,0 +1,32 @@
+package dows.masterchef.config;
+
+import com.mongodb.client.result.UpdateResult;
+import dows.masterchef.model.Recipe;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecipeVersionBackfillTest {
+
+    @Test
+    void backfill_sets_version_zero_on_unversioned_recipes_in_one_call() {
+        MongoOperations mongo = mock(MongoOperations.class);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        when(mongo.updateMulti(query.capture(), update.capture(), eq(Recipe.class))).thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+        new RecipeVersionBackfill(mongo).afterSingletonsInstantiated();
+
+        assertEquals(new Document("version", new Document("$exists", false)), query.getValue().getQueryObject());
+        assertEquals(new Document("$set", new Document("version", 0L)), update.getValue().getUpdateObject());
+        verify(mongo, times(1)).updateMulti(any(Query.class), any(Update.class), eq(Recipe.class));
+        assertEquals(3L, new RecipeVersionBackfill(mongo).backfill());
+    }
+}
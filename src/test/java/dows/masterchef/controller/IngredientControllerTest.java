@@ -0,0 +1,45 @@
+package dows.masterchef.controller;
+
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.exception.GlobalExceptionHandler;
+import dows.masterchef.search.IngredientIndex;
+import dows.masterchef.service.RecipeSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class IngredientControllerTest {
+
+    private RecipeSearchService searchService;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setup() {
+        searchService = mock(RecipeSearchService.class);
+        mvc = MockMvcBuilders.standaloneSetup(new IngredientController(searchService)).setControllerAdvice(new GlobalExceptionHandler()).build();
+    }
+
+    @Test
+    void suggest_ShouldReturnNamesWithRecipeCounts() throws Exception {
+        when(searchService.suggestIngredients("que", 5)).thenReturn(List.of(new IngredientIndex.Suggestion("queso", 12)));
+
+        mvc.perform(get("/api/v1/ingredients/suggest").param("prefix", "que").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("queso"))
+                .andExpect(jsonPath("$[0].recipes").value(12));
+    }
+
+    @Test
+    void suggest_WithoutPrefix_ShouldReturn400() throws Exception {
+        when(searchService.suggestIngredients(null, null)).thenThrow(new ApiException(400, "prefix query param is required"));
+
+        mvc.perform(get("/api/v1/ingredients/suggest")).andExpect(status().isBadRequest());
+    }
+}
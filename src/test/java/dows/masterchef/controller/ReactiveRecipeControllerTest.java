@@ -0,0 +1,142 @@
+package dows.masterchef.controller;
+
+import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.dto.RecipePage;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.exception.GlobalExceptionHandler;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.model.RecipeStats;
+import dows.masterchef.service.ReactiveRecipeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReactiveRecipeControllerTest {
+
+    private ReactiveRecipeService service;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        service = mock(ReactiveRecipeService.class);
+        client = WebTestClient.bindToController(new ReactiveRecipeController(service))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static RecipeSummary summary(long seq) {
+        return new RecipeSummary(Long.valueOf(seq), "Arepas", "Carla", AuthorType.CHEF, null);
+    }
+
+    private static Map<String, Object> body() {
+        return Map.of("title", "Arepas", "ingredients", List.of("Harina"), "steps", List.of("Mezclar"), "chefName", "Carla", "authorType", "VIEWER");
+    }
+
+    @Test
+    void createChef_ShouldForceAuthorTypeAndReturn201() {
+        Recipe recipe = new Recipe();
+        recipe.setSeq(1L);
+        when(service.create(any(RecipeInput.class))).thenAnswer(inv -> {
+            recipe.setAuthorType(((RecipeInput) inv.getArgument(0)).getAuthorType());
+            return Mono.just(recipe);
+        });
+
+        client.post().uri("/api/v1/recipes/chef").contentType(MediaType.APPLICATION_JSON).bodyValue(body())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.seq").isEqualTo(1).jsonPath("$.authorType").isEqualTo("CHEF");
+    }
+
+    @Test
+    void create_InvalidBody_ShouldReturn400WithDetails() {
+        client.post().uri("/api/v1/recipes").contentType(MediaType.APPLICATION_JSON).bodyValue(Map.of("title", ""))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Validation failed").jsonPath("$.details.title").exists();
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void bySeq_Missing_ShouldReturn404() {
+        when(service.findBySeq(5)).thenReturn(Mono.error(new ApiException(404, "Recipe not found")));
+
+        client.get().uri("/api/v1/recipes/5").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void stats_ShouldNotBeTakenForASeq() {
+        RecipeStats stats = new RecipeStats("recipes");
+        stats.setTotal(3);
+        stats.getByAuthorType().put("CHEF", 3L);
+        when(service.stats()).thenReturn(Mono.just(stats));
+
+        client.get().uri("/api/v1/recipes/stats").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.total").isEqualTo(3).jsonPath("$.byAuthorType.CHEF").isEqualTo(3).jsonPath("$.id").doesNotExist();
+    }
+
+    @Test
+    void all_AsNdjson_ShouldStreamOneSummaryPerLine() {
+        when(service.findAll(null)).thenReturn(Flux.just(summary(1), summary(2)));
+
+        client.get().uri("/api/v1/recipes").accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectHeader().doesNotExist(ReactiveRecipeController.NEXT_CURSOR)
+                .expectBodyList(RecipeSummary.class).hasSize(2);
+    }
+
+    @Test
+    void listingsAndSearch_ShouldDelegateToService() {
+        when(service.byTypePage(AuthorType.CHEF, "abc", 10)).thenReturn(Mono.just(new RecipePage<>(List.of(summary(1)), null)));
+        when(service.bySeason(2, null)).thenReturn(Flux.just(summary(1), summary(2)));
+        when(service.searchByIngredient("queso")).thenReturn(Flux.just(summary(3)));
+
+        client.get().uri("/api/v1/recipes/type/CHEF?after=abc&limit=10").exchange()
+                .expectStatus().isOk().expectBodyList(RecipeSummary.class).hasSize(1);
+        client.get().uri("/api/v1/recipes/season/2").exchange()
+                .expectStatus().isOk().expectBodyList(RecipeSummary.class).hasSize(2);
+        client.get().uri("/api/v1/recipes/search/by-ingredient?ingredient=queso").exchange()
+                .expectStatus().isOk().expectBodyList(RecipeSummary.class).hasSize(1);
+    }
+
+    @Test
+    void limitedListings_ShouldSendNextCursorHeader() {
+        when(service.findAllPage(null, 2)).thenReturn(Mono.just(new RecipePage<>(List.of(summary(1), summary(2)), "Mg")));
+        when(service.bySeasonPage(2, "Mg", 2)).thenReturn(Mono.just(new RecipePage<>(List.of(summary(3)), null)));
+
+        client.get().uri("/api/v1/recipes?limit=2").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(ReactiveRecipeController.NEXT_CURSOR, "Mg")
+                .expectBodyList(RecipeSummary.class).hasSize(2);
+        client.get().uri("/api/v1/recipes/season/2?after=Mg&limit=2").exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(ReactiveRecipeController.NEXT_CURSOR)
+                .expectBodyList(RecipeSummary.class).hasSize(1);
+    }
+
+    @Test
+    void updateAndDelete_ShouldDelegateToService() {
+        Recipe recipe = new Recipe();
+        recipe.setSeq(4L);
+        when(service.update(eq(4L), any(RecipeInput.class))).thenReturn(Mono.just(recipe));
+        when(service.delete(4)).thenReturn(Mono.empty());
+
+        client.put().uri("/api/v1/recipes/4").contentType(MediaType.APPLICATION_JSON).bodyValue(body())
+                .exchange().expectStatus().isOk().expectBody().jsonPath("$.seq").isEqualTo(4);
+        client.delete().uri("/api/v1/recipes/4").exchange().expectStatus().isNoContent();
+    }
+}
@@ -1,8 +1,17 @@
 package dows.masterchef.controller;
 
+import dows.masterchef.dto.RecipeBatch;
 import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.dto.RecipePage;
+import dows.masterchef.dto.RecipePatch;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.exception.ApiException;
 import dows.masterchef.model.AuthorType;
 import dows.masterchef.model.Recipe;
+import dows.masterchef.model.RecipeStats;
+import dows.masterchef.service.RecipeBulkService;
+import dows.masterchef.service.RecipeExportService;
+import dows.masterchef.service.RecipeSearchService;
 import dows.masterchef.service.RecipeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,17 +20,27 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(MockitoExtension.class)
 class RecipeControllerTest {
@@ -29,11 +48,21 @@ class RecipeControllerTest {
     @Mock
     private RecipeService recipeService;
 
+    @Mock
+    private RecipeExportService exportService;
+
+    @Mock
+    private RecipeSearchService searchService;
+
+    @Mock
+    private RecipeBulkService bulkService;
+
     @InjectMocks
     private RecipeController recipeController;
 
     private RecipeInput recipeInput;
     private Recipe recipe;
+    private RecipeSummary summary;
     private final Long SEQ = (Long) 1L;
     private final int SEASON = 1;
 
@@ -46,7 +75,7 @@ class RecipeControllerTest {
         recipe = new Recipe();
         recipe.setSeq(SEQ);
         recipe.setTitle("Test Recipe");
-
+        summary = RecipeSummary.of(recipe);
     }
 
     @Test
@@ -106,19 +135,76 @@ class RecipeControllerTest {
         verify(recipeService, times(1)).create(recipeInput);
     }
 
+    @Test
+    void createBulk_ShouldReturnPerItemResults() {
+        // Arrange
+        List<RecipeInput> inputs = List.of(recipeInput);
+        when(bulkService.createAll(inputs)).thenReturn(List.of(dows.masterchef.dto.BulkItemResult.created(0, SEQ)));
+
+        // Act
+        List<dows.masterchef.dto.BulkItemResult> result = recipeController.createBulk(inputs);
+
+        // Assert
+        assertEquals(201, result.get(0).getStatus());
+        assertEquals(SEQ, result.get(0).getSeq());
+    }
+
     @Test
     void all_ShouldReturnAllRecipes() {
         // Arrange
-        List<Recipe> expectedRecipes = Arrays.asList(recipe, new Recipe());
-        when(recipeService.findAll()).thenReturn(expectedRecipes);
+        RecipePage<RecipeSummary> expectedRecipes = new RecipePage<>(Arrays.asList(summary, summary), null);
+        when(recipeService.findAll(null, null)).thenReturn(expectedRecipes);
 
         // Act
-        List<Recipe> result = recipeController.all();
+        RecipePage<RecipeSummary> result = recipeController.all(null, null).getBody();
 
         // Assert
         assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(recipeService, times(1)).findAll();
+        assertEquals(2, result.getItems().size());
+        verify(recipeService, times(1)).findAll(null, null);
+    }
+
+    @Test
+    void export_ShouldStreamNdjsonFromExportService() throws Exception {
+        // Act
+        ResponseEntity<StreamingResponseBody> response = recipeController.export(AuthorType.CHEF, SEASON);
+        response.getBody().writeTo(new java.io.ByteArrayOutputStream());
+
+        // Assert
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        verify(exportService, times(1)).exportNdjson(eq(AuthorType.CHEF), eq(Integer.valueOf(SEASON)), any());
+    }
+
+    @Test
+    void cacheStats_ShouldReturnServiceStats() {
+        // Arrange
+        when(recipeService.cacheStats()).thenReturn(java.util.Map.of("hits", 3L));
+
+        // Act & Assert
+        assertEquals(3L, recipeController.cacheStats().get("hits"));
+    }
+
+    @Test
+    void searchText_ShouldDelegateToSearchService() {
+        // Arrange
+        RecipePage<RecipeSummary> page = new RecipePage<>(List.of(summary), null);
+        when(searchService.text("horno 180", null, 10)).thenReturn(page);
+
+        // Act & Assert
+        assertSame(page, recipeController.searchText("horno 180", null, 10));
+    }
+
+    @Test
+    void stats_ShouldReturnMaterializedCountersAndReconcileOnDemand() {
+        // Arrange
+        RecipeStats stats = new RecipeStats("recipes");
+        stats.setTotal(7);
+        when(recipeService.stats()).thenReturn(stats);
+        when(recipeService.reconcileStats()).thenReturn(stats);
+
+        // Act & Assert
+        assertEquals(7, recipeController.stats().getTotal());
+        assertSame(stats, recipeController.reconcileStats());
     }
 
     @Test
@@ -127,7 +213,7 @@ class RecipeControllerTest {
         when(recipeService.findBySeq(SEQ)).thenReturn(recipe);
 
         // Act
-        Recipe result = recipeController.bySeq(SEQ);
+        Recipe result = recipeController.bySeq(SEQ).getBody();
 
         // Assert
         assertNotNull(result);
@@ -138,11 +224,10 @@ class RecipeControllerTest {
     @Test
     void bySeq_WithNonExistingRecipe_ShouldThrowException() {
         // Arrange
-        when(recipeService.findBySeq(SEQ)).thenReturn(null);
+        when(recipeService.findBySeq(SEQ)).thenThrow(new ApiException(404, "Recipe not found"));
 
         // Act & Assert
-        Recipe result = recipeController.bySeq(SEQ);
-        assertNull(result);
+        assertThrows(ApiException.class, () -> recipeController.bySeq(SEQ));
         verify(recipeService, times(1)).findBySeq(SEQ);
     }
 
@@ -150,42 +235,42 @@ class RecipeControllerTest {
     void byType_ShouldReturnRecipesByType() {
         // Arrange
         AuthorType type = AuthorType.CHEF;
-        List<Recipe> expectedRecipes = Arrays.asList(recipe);
-        when(recipeService.byType(type)).thenReturn(expectedRecipes);
+        RecipePage<RecipeSummary> expectedRecipes = new RecipePage<>(Arrays.asList(summary), null);
+        when(recipeService.byType(type, null, null)).thenReturn(expectedRecipes);
 
         // Act
-        List<Recipe> result = recipeController.byType(type);
+        RecipePage<RecipeSummary> result = recipeController.byType(type, null, null).getBody();
 
         // Assert
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(recipeService, times(1)).byType(type);
+        assertEquals(1, result.getItems().size());
+        verify(recipeService, times(1)).byType(type, null, null);
     }
 
     @Test
     void bySeason_ShouldReturnRecipesBySeason() {
         // Arrange
-        List<Recipe> expectedRecipes = Arrays.asList(recipe);
-        when(recipeService.bySeason(SEASON)).thenReturn(expectedRecipes);
+        RecipePage<RecipeSummary> expectedRecipes = new RecipePage<>(Arrays.asList(summary), null);
+        when(recipeService.bySeason(SEASON, null, null)).thenReturn(expectedRecipes);
 
         // Act
-        List<Recipe> result = recipeController.bySeason(SEASON);
+        RecipePage<RecipeSummary> result = recipeController.bySeason(SEASON, null, null).getBody();
 
         // Assert
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(recipeService, times(1)).bySeason(SEASON);
+        assertEquals(1, result.getItems().size());
+        verify(recipeService, times(1)).bySeason(SEASON, null, null);
     }
 
     @Test
     void searchByIngredient_ShouldReturnMatchingRecipes() {
         // Arrange
         String ingredient = "tomato";
-        List<Recipe> expectedRecipes = Arrays.asList(recipe);
+        List<RecipeSummary> expectedRecipes = Arrays.asList(summary);
         when(recipeService.searchByIngredient(ingredient)).thenReturn(expectedRecipes);
 
         // Act
-        List<Recipe> result = recipeController.search(ingredient);
+        List<RecipeSummary> result = recipeController.search(ingredient, false);
 
         // Assert
         assertNotNull(result);
@@ -193,6 +278,51 @@ class RecipeControllerTest {
         verify(recipeService, times(1)).searchByIngredient(ingredient);
     }
 
+    @Test
+    void searchByIngredient_Fuzzy_ShouldDelegateToSearchService() {
+        when(searchService.fuzzyByIngredient("tomatte")).thenReturn(List.of(summary));
+
+        assertEquals(1, recipeController.search("tomatte", true).size());
+        verify(recipeService, never()).searchByIngredient(anyString());
+    }
+
+    @Test
+    void lookup_ShouldDelegateToService() {
+        when(recipeService.lookup("jalapenos", null, null, true, null, 10)).thenReturn(new RecipePage<>(List.of(summary), null));
+
+        assertEquals(1, recipeController.lookup("jalapenos", null, null, true, null, 10).getItems().size());
+        verify(recipeService, times(1)).lookup("jalapenos", null, null, true, null, 10);
+    }
+
+    @Test
+    void searchByIngredients_ShouldDelegateToSearchService() {
+        // Arrange
+        List<String> all = List.of("queso", "tomate");
+        List<String> none = List.of("cebolla");
+        when(searchService.byIngredients(all, null, none, null, 10)).thenReturn(new RecipePage<>(List.of(summary), null));
+
+        // Act
+        RecipePage<RecipeSummary> result = recipeController.searchByIngredients(all, null, none, null, 10);
+
+        // Assert
+        assertEquals(1, result.getItems().size());
+        verify(searchService, times(1)).byIngredients(all, null, none, null, 10);
+    }
+
+    @Test
+    void pantry_ShouldDelegateToSearchService() {
+        // Arrange
+        List<String> have = List.of("queso", "tomate");
+        when(searchService.pantry(have, 1, null)).thenReturn(List.of(new dows.masterchef.dto.PantryMatch(summary, 1, List.of("sal"))));
+
+        // Act
+        List<dows.masterchef.dto.PantryMatch> result = recipeController.pantry(have, 1, null);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(List.of("sal"), result.get(0).getMissingIngredients());
+    }
+
     @Test
     void update_WithExistingRecipe_ShouldReturnUpdatedRecipe() {
         // Arrange
@@ -200,45 +330,87 @@ class RecipeControllerTest {
         updatedRecipe.setSeq(SEQ);
         updatedRecipe.setTitle("Updated Recipe");
 
-        when(recipeService.update(eq(SEQ), any(RecipeInput.class))).thenReturn(updatedRecipe);
+        when(recipeService.update(eq(SEQ), any(RecipeInput.class), isNull())).thenReturn(updatedRecipe);
 
         // Act
-        Recipe result = recipeController.update(SEQ, recipeInput);
+        Recipe result = recipeController.update(SEQ, recipeInput, null).getBody();
 
         // Assert
         assertNotNull(result);
         assertEquals("Updated Recipe", result.getTitle());
-        verify(recipeService, times(1)).update(SEQ, recipeInput);
+        verify(recipeService, times(1)).update(SEQ, recipeInput, null);
     }
 
     @Test
     void update_WithNonExistingRecipe_ShouldThrowException() {
         // Arrange
-        when(recipeService.update(eq(SEQ), any(RecipeInput.class))).thenReturn(null);
+        when(recipeService.update(eq(SEQ), any(RecipeInput.class), isNull())).thenThrow(new ApiException(404, "Recipe not found"));
 
         // Act & Assert
-        Recipe result = recipeController.update(SEQ, recipeInput);
-        assertNull(result);
-        verify(recipeService, times(1)).update(SEQ, recipeInput);
+        assertThrows(ApiException.class, () -> recipeController.update(SEQ, recipeInput, null));
+        verify(recipeService, times(1)).update(SEQ, recipeInput, null);
+    }
+
+    @Test
+    void writes_WithIfMatch_ShouldPassExpectedVersionAndReturnNewETag() {
+        recipe.setVersion(4L);
+        RecipePatch patch = new RecipePatch();
+        patch.setTitle("Patched");
+        when(recipeService.update(SEQ, recipeInput, 3L)).thenReturn(recipe);
+        when(recipeService.patch(SEQ, patch, 3L)).thenReturn(recipe);
+
+        assertEquals("\"1-4\"", recipeController.update(SEQ, recipeInput, "\"1-3\"").getHeaders().getETag());
+        assertEquals("\"1-4\"", recipeController.patch(SEQ, patch, " \"1-3\" ").getHeaders().getETag());
+        recipeController.delete(SEQ, "\"1-3\"");
+        verify(recipeService).delete(SEQ, 3L);
+        recipeController.delete(SEQ, "*");
+        verify(recipeService).delete(SEQ, null);
+    }
+
+    @Test
+    void writes_WithForeignOrMalformedIfMatch_ShouldFailWith412() {
+        for (String tag : List.of("\"2-3\"", "W/\"1-3\"", "\"1-x\"", "\"1-\"", "1-3")) {
+            ApiException ex = assertThrows(ApiException.class, () -> recipeController.delete(SEQ, tag));
+            assertEquals(412, ex.getStatus());
+        }
+        verifyNoInteractions(recipeService);
+    }
+
+    @Test
+    void patch_ShouldDelegateToService() {
+        RecipePatch patch = new RecipePatch();
+        patch.setTitle("Patched");
+        when(recipeService.patch(SEQ, patch, null)).thenReturn(recipe);
+
+        assertSame(recipe, recipeController.patch(SEQ, patch, null).getBody());
+    }
+
+    @Test
+    void bulkDeletes_ShouldReturnDeletedCount() {
+        when(bulkService.deleteAll(List.of(1L, 2L))).thenReturn(2L);
+        when(bulkService.deleteSeason(SEASON)).thenReturn(7L);
+
+        assertEquals(Map.of("deleted", 2L), recipeController.deleteBulk(List.of(1L, 2L)));
+        assertEquals(Map.of("deleted", 7L), recipeController.deleteSeason(SEASON));
     }
 
     @Test
     void delete_ShouldCallServiceDelete() {
         // Act
-        recipeController.delete(SEQ);
+        recipeController.delete(SEQ, null);
 
         // Assert
-        verify(recipeService, times(1)).delete(SEQ);
+        verify(recipeService, times(1)).delete(SEQ, null);
     }
 
     @Test
     void delete_WithNonExistingRecipe_ShouldNotThrowException() {
         // Arrange
-        doNothing().when(recipeService).delete(SEQ);
+        doNothing().when(recipeService).delete(SEQ, null);
 
         // Act & Assert
-        assertDoesNotThrow(() -> recipeController.delete(SEQ));
-        verify(recipeService, times(1)).delete(SEQ);
+        assertDoesNotThrow(() -> recipeController.delete(SEQ, null));
+        verify(recipeService, times(1)).delete(SEQ, null);
     }
 
     // Test para verificar el comportamiento con parámetros nulos o inválidos
@@ -257,7 +429,7 @@ class RecipeControllerTest {
         when(recipeService.searchByIngredient("")).thenReturn(Arrays.asList());
 
         // Act
-        List<Recipe> result = recipeController.search("");
+        List<RecipeSummary> result = recipeController.search("", false);
 
         // Assert
         assertNotNull(result);
@@ -269,14 +441,80 @@ class RecipeControllerTest {
     void bySeason_WithInvalidSeason_ShouldReturnEmptyList() {
         // Arrange
         int invalidSeason = -1;
-        when(recipeService.bySeason(invalidSeason)).thenReturn(Arrays.asList());
+        when(recipeService.bySeason(invalidSeason, null, null)).thenReturn(new RecipePage<>(Arrays.asList(), null));
 
         // Act
-        List<Recipe> result = recipeController.bySeason(invalidSeason);
+        RecipePage<RecipeSummary> result = recipeController.bySeason(invalidSeason, null, null).getBody();
 
         // Assert
         assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(recipeService, times(1)).bySeason(invalidSeason);
+        assertTrue(result.getItems().isEmpty());
+        verify(recipeService, times(1)).bySeason(invalidSeason, null, null);
+    }
+
+    @Test
+    void bySeq_WithMatchingIfNoneMatch_ShouldReturn304WithoutBody() throws Exception {
+        recipe.setUpdatedAt(Instant.parse("2026-01-02T03:04:05.678Z"));
+        recipe.setVersion(7L);
+        when(recipeService.findBySeq(SEQ)).thenReturn(recipe);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(recipeController).build();
+
+        String etag = mvc.perform(get("/api/v1/recipes/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-7\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/api/v1/recipes/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        recipe.setVersion(8L);
+        mvc.perform(get("/api/v1/recipes/1").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void lists_ShouldCarryContentETag() throws Exception {
+        when(recipeService.findAll(null, null)).thenReturn(new RecipePage<>(List.of(summary), null));
+        when(recipeService.byType(AuthorType.CHEF, null, null)).thenReturn(new RecipePage<>(List.of(summary), null));
+        when(recipeService.bySeason(SEASON, null, null)).thenReturn(new RecipePage<>(List.of(RecipeSummary.of(new Recipe())), null));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(recipeController).build();
+
+        String etag = mvc.perform(get("/api/v1/recipes")).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+        mvc.perform(get("/api/v1/recipes").header("If-None-Match", etag)).andExpect(status().isNotModified());
+        mvc.perform(get("/api/v1/recipes/type/CHEF").header("If-None-Match", etag)).andExpect(status().isNotModified());
+        mvc.perform(get("/api/v1/recipes/season/1").header("If-None-Match", etag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void bySeqs_ShouldRouteSeqsParamAndCarryETag() throws Exception {
+        recipe.setVersion(3L);
+        when(recipeService.findAllBySeq(List.of(1L, 4L))).thenReturn(new RecipeBatch(List.of(recipe), List.of(4L)));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(recipeController).build();
+
+        String etag = mvc.perform(get("/api/v1/recipes").param("seqs", "1,4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].seq").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(4))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+        mvc.perform(get("/api/v1/recipes").param("seqs", "1,4").header("If-None-Match", etag)).andExpect(status().isNotModified());
+        verify(recipeService, never()).findAll(any(), any());
+
+        recipe.setVersion(null);
+        assertNull(recipeController.bySeqs(List.of(1L, 4L)).getHeaders().getETag());
+    }
+
+    @Test
+    void bySeq_WithoutVersion_ShouldOmitConditionalHeaders() {
+        when(recipeService.findBySeq(SEQ)).thenReturn(recipe);
+
+        ResponseEntity<Recipe> response = recipeController.bySeq(SEQ);
+
+        assertNull(response.getHeaders().getETag());
+        assertSame(recipe, response.getBody());
     }
-}
\ No newline at end of file
+}
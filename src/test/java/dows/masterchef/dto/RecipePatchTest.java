@@ -0,0 +1,43 @@
+package dows.masterchef.dto;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import dows.masterchef.model.AuthorType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipePatchTest {
+
+    private Validator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    @Test
+    void absentFields_ShouldPassValidation() {
+        RecipePatch patch = new RecipePatch();
+        assertTrue(patch.isEmpty());
+        assertTrue(validator.validate(patch).isEmpty());
+
+        patch.setAuthorType(AuthorType.CHEF);
+        assertFalse(patch.isEmpty());
+        assertTrue(validator.validate(patch).isEmpty());
+    }
+
+    @Test
+    void presentFields_ShouldFollowRecipeInputRules() {
+        RecipePatch patch = new RecipePatch();
+        patch.setTitle("  ");
+        patch.setChefName("");
+        patch.setIngredients(List.of());
+        patch.setSteps(List.of("Mezclar", " "));
+
+        assertEquals(4, validator.validate(patch).size());
+    }
+}
@@ -0,0 +1,54 @@
+package dows.masterchef.exception;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private SimpleMeterRegistry registry;
+    private GlobalExceptionHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        handler = new GlobalExceptionHandler(registry);
+    }
+
+    private double errors(String status, String type) {
+        return registry.counter("masterchef.api.errors", "status", status, "type", type).count();
+    }
+
+    @Test
+    void handleApi_ShouldReturnStatusAndCountByStatus() {
+        ResponseEntity<Map<String, Object>> response = handler.handleApi(new ApiException(404, "Recipe not found"));
+        handler.handleApi(new ApiException(404, "Recipe not found"));
+        handler.handleApi(new ApiException(400, "season is required"));
+
+        assertEquals(404, response.getStatusCode().value());
+        assertEquals("Recipe not found", response.getBody().get("message"));
+        assertEquals(2.0, errors("404", "api"));
+        assertEquals(1.0, errors("400", "api"));
+    }
+
+    @Test
+    void handleValidation_ShouldReturnFieldDetailsAndCount() throws Exception {
+        BeanPropertyBindingResult result = new BeanPropertyBindingResult(new Object(), "recipe");
+        result.addError(new org.springframework.validation.FieldError("recipe", "title", "must not be blank"));
+        MethodParameter param = new MethodParameter(Object.class.getMethod("toString"), -1);
+
+        ResponseEntity<Map<String, Object>> response = handler.handleValidation(new MethodArgumentNotValidException(param, result));
+
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals(Map.of("title", "must not be blank"), response.getBody().get("details"));
+        assertEquals(1.0, errors("400", "validation"));
+    }
+}
@@ -0,0 +1,123 @@
+package dows.masterchef.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import dows.masterchef.config.RecipeIndexes;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.dto.RecipeTextMatch;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RecipeRepositoryCustomImplTest {
+
+    @Test
+    void insertUnordered_returns_bulk_errors() {
+        MongoOperations mongo = mock(MongoOperations.class);
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        RecipeRepositoryCustomImpl impl = new RecipeRepositoryCustomImpl(mongo);
+
+        assertTrue(impl.insertUnordered(List.of(new Recipe())).isEmpty());
+
+        BulkWriteError error = new BulkWriteError(11000, "dup", new BsonDocument(), 0);
+        MongoBulkWriteException cause = new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(error), null, new ServerAddress(), Set.of());
+        when(bulk.execute()).thenThrow(new BulkOperationException("bulk failed", cause));
+        assertEquals(List.of(error), impl.insertUnordered(List.of(new Recipe())));
+    }
+
+    @Test
+    void findAndModifyBySeq_filters_by_seq_and_guard_and_returns_the_requested_image() {
+        MongoOperations mongo = mock(MongoOperations.class);
+        Recipe modified = new Recipe();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        Update update = new Update().set("title", "Nuevo");
+        when(mongo.findAndModify(query.capture(), eq(update), options.capture(), eq(Recipe.class))).thenReturn(modified, (Recipe) null);
+        RecipeRepositoryCustomImpl impl = new RecipeRepositoryCustomImpl(mongo);
+
+        assertEquals(Optional.of(modified), impl.findAndModifyBySeq(3L, null, update, true));
+        assertEquals(new Document("seq", 3L), query.getValue().getQueryObject());
+        assertTrue(options.getValue().isReturnNew());
+
+        assertTrue(impl.findAndModifyBySeq(3L, Criteria.where("season").ne(null), update, false).isEmpty());
+        assertFalse(options.getValue().isReturnNew());
+        assertEquals(List.of(new Document("seq", 3L), new Document("season", new Document("$ne", null))),
+                query.getValue().getQueryObject().get("$and"));
+    }
+
+    @Test
+    void searchText_ranks_by_score_and_resumes_after_the_cursor() {
+        MongoOperations mongo = mock(MongoOperations.class);
+        when(mongo.getCollectionName(Recipe.class)).thenReturn("recipes");
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        RecipeTextMatch match = new RecipeTextMatch(4L, "Pan", "Carla", AuthorType.CHEF, null, 1.5);
+        when(mongo.aggregate(aggregation.capture(), eq("recipes"), eq(RecipeTextMatch.class)))
+                .thenReturn(new AggregationResults<>(List.of(match), new Document()));
+        RecipeRepositoryCustomImpl impl = new RecipeRepositoryCustomImpl(mongo);
+
+        assertEquals(List.of(match), impl.searchText("horno 180", null, 0L, 3));
+        List<Document> first = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(new Document("$text", new Document("$search", "horno 180").append("$language", "spanish")), first.get(0).get("$match"));
+        assertEquals(new Document("score", new Document("$meta", "textScore")), first.get(1).get("$addFields"));
+        assertEquals(new Document("score", -1).append("seq", 1), first.get(2).get("$sort"));
+        assertEquals(3L, first.get(3).get("$limit"));
+        assertEquals(Set.of("seq", "title", "chefName", "authorType", "season", "score", "_id"), ((Document) first.get(4).get("$project")).keySet());
+
+        impl.searchText("horno", 1.5, 4L, 3);
+        Document cursor = (Document) aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(2).get("$match");
+        assertEquals(List.of(new Document("score", new Document("$lt", 1.5)), new Document("score", 1.5).append("seq", new Document("$gt", 4L))),
+                cursor.get("$or"));
+    }
+
+    @Test
+    void lookup_uses_the_index_collation_and_a_range_for_prefixes() {
+        MongoOperations mongo = mock(MongoOperations.class);
+        when(mongo.getCollectionName(Recipe.class)).thenReturn("recipes");
+        RecipeSummary summary = new RecipeSummary(5L, "Jalapeños rellenos", "Ana", AuthorType.CHEF, null);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongo.find(query.capture(), eq(RecipeSummary.class), eq("recipes"))).thenReturn(List.of(summary));
+        RecipeRepositoryCustomImpl impl = new RecipeRepositoryCustomImpl(mongo);
+
+        assertEquals(List.of(summary), impl.lookup(RecipeRepositoryCustom.LookupField.TITLE, "jalapenos rellenos", false, 0L, 6));
+        Query equality = query.getValue();
+        assertEquals(List.of(new Document("title", "jalapenos rellenos"), new Document("seq", new Document("$gt", 0L))),
+                equality.getQueryObject().get("$and"));
+        assertEquals(RecipeIndexes.LOOKUP_COLLATION, equality.getCollation().orElseThrow());
+        assertEquals(new Document("seq", 1), equality.getSortObject());
+        assertEquals(6, equality.getLimit());
+        assertEquals(Set.of("seq", "title", "chefName", "authorType", "season", "_id"), equality.getFieldsObject().keySet());
+
+        impl.lookup(RecipeRepositoryCustom.LookupField.CHEF_NAME, "jose", true, 4L, 6);
+        assertEquals(new Document("chefName", new Document("$gte", "jose").append("$lt", "jose\uffff")),
+                ((List<?>) query.getValue().getQueryObject().get("$and")).get(0));
+
+        impl.lookup(RecipeRepositoryCustom.LookupField.INGREDIENT, "queso", true, 0L, 6);
+        assertEquals(new Document("ingredients", new Document("$elemMatch", new Document("$gte", "queso").append("$lt", "queso\uffff"))),
+                ((List<?>) query.getValue().getQueryObject().get("$and")).get(0));
+    }
+}
@@ -0,0 +1,52 @@
+package dows.masterchef.repository;
+
+import com.mongodb.MongoClientSettings;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.DbCallback;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RecipeRepositoryTest {
+
+    @Test
+    void deletes_return_only_the_classification_of_the_removed_recipe() {
+        MongoMappingContext mapping = new MongoMappingContext();
+        mapping.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        // El repositorio prepara al crearse las operaciones fluidas (query/update...): basta con que no sean null
+        MongoOperations mongo = mock(MongoOperations.class, RETURNS_DEEP_STUBS);
+        when(mongo.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mapping));
+        // Las @Query de texto se analizan con el CodecRegistry de la base de datos
+        when(mongo.execute(any(DbCallback.class))).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        Recipe removed = new Recipe(); removed.setAuthorType(AuthorType.PARTICIPANT); removed.setSeason(Integer.valueOf(2));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongo.findAndRemove(query.capture(), eq(Recipe.class), eq("recipes"))).thenReturn(removed, (Recipe) null);
+        RecipeRepository repo = new MongoRepositoryFactory(mongo)
+                .getRepository(RecipeRepository.class, RepositoryFragments.just(new RecipeRepositoryCustomImpl(mongo)));
+
+        assertEquals(Optional.of(removed), repo.deleteBySeq(Long.valueOf(3L)));
+        assertEquals(new Document("seq", 3L), query.getValue().getQueryObject());
+        assertEquals(new Document("authorType", 1).append("season", 1), query.getValue().getFieldsObject());
+
+        assertTrue(repo.deleteBySeqAndVersion(Long.valueOf(3L), Long.valueOf(5L)).isEmpty());
+        assertEquals(new Document("seq", 3L).append("version", 5L), query.getValue().getQueryObject());
+        assertEquals(new Document("authorType", 1).append("season", 1), query.getValue().getFieldsObject());
+    }
+}
@@ -0,0 +1,31 @@
+package dows.masterchef.search;
+
+import dows.masterchef.model.Recipe;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IngredientIndexLoaderTest {
+
+    @Test
+    void reload_rebuilds_index_from_projection() {
+        MongoOperations mongo = mock(MongoOperations.class);
+        Recipe r = new Recipe();
+        r.setSeq(Long.valueOf(5L));
+        r.setIngredients(List.of("Queso"));
+        when(mongo.stream(any(Query.class), eq(Recipe.class))).thenReturn(Stream.of(r));
+        IngredientIndex index = new IngredientIndex();
+
+        new IngredientIndexLoader(mongo, index).run(null);
+
+        assertEquals(1, index.size());
+        verify(mongo).stream(argThat((Query q) -> q.getFieldsObject().containsKey("ingredients")), eq(Recipe.class));
+    }
+}
@@ -0,0 +1,166 @@
+package dows.masterchef.search;
+
+import dows.masterchef.model.Recipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientIndexTest {
+
+    private IngredientIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new IngredientIndex();
+        index.put(1L, List.of("Queso manchego", "Tomate"));
+        index.put(2L, List.of("Queso", "Cebolla", "Tomate"));
+        index.put(3L, List.of("Cebolla", "Pimiento"));
+        index.put(4L, List.of("Tomate", "Albahaca"));
+    }
+
+    private static List<Long> seqs(Roaring64Bitmap bitmap) {
+        List<Long> out = new ArrayList<>();
+        bitmap.forEach(out::add);
+        return out;
+    }
+
+    private static Recipe recipe(long seq, String... ingredients) {
+        Recipe r = new Recipe();
+        r.setSeq(Long.valueOf(seq));
+        r.setIngredients(List.of(ingredients));
+        return r;
+    }
+
+    @Test
+    void allOf_intersects_postings() {
+        assertEquals(List.of(1L, 2L), seqs(index.match(List.of("queso", "tomate"), null, null)));
+        assertEquals(List.of(1L), seqs(index.match(List.of("Queso Manchego"), null, null)));
+    }
+
+    @Test
+    void anyOf_unions_postings_and_noneOf_subtracts() {
+        assertEquals(List.of(1L, 2L, 3L), seqs(index.match(null, List.of("queso", "pimiento"), null)));
+        assertEquals(List.of(1L), seqs(index.match(List.of("queso", "tomate"), null, List.of("cebolla"))));
+        assertEquals(List.of(1L, 4L), seqs(index.match(null, null, List.of("cebolla"))));
+    }
+
+    @Test
+    void unknown_term_matches_nothing() {
+        assertTrue(index.match(List.of("queso", "trufa"), null, null).isEmpty());
+    }
+
+    @Test
+    void fuzzy_tolerates_typos_per_word_and_follows_writes() {
+        assertEquals(List.of(1L, 2L, 4L), seqs(index.fuzzy("tomatte")));
+        assertEquals(List.of(1L), seqs(index.fuzzy("Qeuso manchgo")));
+        assertTrue(index.fuzzy("trufa").isEmpty());
+        assertTrue(index.fuzzy("de").isEmpty());
+
+        index.remove(4L);
+        assertTrue(index.fuzzy("albahac").isEmpty());
+        index.put(5L, List.of("Albahaca"));
+        assertEquals(List.of(5L), seqs(index.fuzzy("albahac")));
+    }
+
+    @Test
+    void put_replaces_previous_tokens_and_remove_clears_them() {
+        index.put(2L, List.of("Pimiento"));
+        assertEquals(List.of(1L), seqs(index.match(List.of("queso"), null, null)));
+        index.remove(3L);
+        assertEquals(List.of(2L), seqs(index.match(List.of("pimiento"), null, null)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void listener_callbacks_keep_index_in_sync() {
+        index.onSaved(recipe(9L, "Trufa"));
+        assertEquals(List.of(9L), seqs(index.match(List.of("trufa"), null, null)));
+        index.onDeleted(9L);
+        assertTrue(index.match(List.of("trufa"), null, null).isEmpty());
+    }
+
+    @Test
+    void rebuild_replaces_state_and_keeps_writes_made_while_loading() {
+        Iterator<Recipe> source = new Iterator<>() {
+            private final Iterator<Recipe> delegate = List.of(recipe(10L, "Arroz"), recipe(11L, "Arroz", "Gambas")).iterator();
+            @Override public boolean hasNext() { return delegate.hasNext(); }
+            @Override public Recipe next() {
+                // escritura concurrente durante la carga
+                index.put(12L, List.of("Arroz"));
+                return delegate.next();
+            }
+        };
+        index.rebuild(source);
+        assertEquals(List.of(10L, 11L, 12L), seqs(index.match(List.of("arroz"), null, null)));
+        assertTrue(index.match(List.of("queso"), null, null).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void failed_rebuild_keeps_the_previous_state() {
+        Iterator<Recipe> source = new Iterator<>() {
+            private int read;
+            @Override public boolean hasNext() { return true; }
+            @Override public Recipe next() {
+                // el cursor se corta después de la primera receta
+                if (read++ > 0) { throw new IllegalStateException("cursor closed"); }
+                index.put(12L, List.of("Arroz"));
+                return recipe(10L, "Arroz");
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> index.rebuild(source));
+
+        assertEquals(List.of(1L, 2L, 4L), seqs(index.match(List.of("tomate"), null, null)));
+        assertEquals(List.of(12L), seqs(index.match(List.of("arroz"), null, null)));
+        assertEquals(5, index.size());
+        // Sin reconstrucción en curso las escrituras ya no se acumulan para reaplicar
+        index.put(13L, List.of("Arroz"));
+        index.rebuild(List.of(recipe(20L, "Arroz")).iterator());
+        assertEquals(List.of(20L), seqs(index.match(List.of("arroz"), null, null)));
+    }
+
+    @Test
+    void pantry_returns_covered_recipes_ranked_by_missing() {
+        List<IngredientIndex.PantryCandidate> exact = index.pantry(List.of("queso", "tomate", "cebolla", "sal"), 0, 10);
+        assertEquals(List.of(2L), exact.stream().map(IngredientIndex.PantryCandidate::seq).toList());
+
+        List<IngredientIndex.PantryCandidate> near = index.pantry(List.of("Tomate", "cebolla", "Pimiento"), 1, 10);
+        assertEquals(List.of(3L, 1L, 2L, 4L), near.stream().map(IngredientIndex.PantryCandidate::seq).toList());
+        assertEquals(List.of(0, 1, 1, 1), near.stream().map(IngredientIndex.PantryCandidate::missing).toList());
+        assertTrue(near.get(0).missingIngredients().isEmpty());
+        assertEquals(List.of("queso manchego"), near.get(1).missingIngredients());
+    }
+
+    @Test
+    void pantry_keeps_only_top_k() {
+        List<IngredientIndex.PantryCandidate> top = index.pantry(List.of("tomate", "cebolla", "pimiento"), 2, 2);
+        assertEquals(List.of(3L, 1L), top.stream().map(IngredientIndex.PantryCandidate::seq).toList());
+    }
+
+    @Test
+    void suggest_counts_recipes_per_normalized_name_and_follows_writes() {
+        assertEquals(List.of(new IngredientIndex.Suggestion("queso", 1), new IngredientIndex.Suggestion("queso manchego", 1)), index.suggest(" QUÉ", 10));
+        assertEquals(new IngredientIndex.Suggestion("tomate", 3), index.suggest("t", 1).get(0));
+
+        index.onSaved(recipe(3L, "Queso", "Tomate"));
+        assertEquals(List.of(new IngredientIndex.Suggestion("queso", 2), new IngredientIndex.Suggestion("queso manchego", 1)), index.suggest("queso", 10));
+        assertTrue(index.suggest("pim", 10).isEmpty());
+
+        index.onDeleted(2L);
+        assertEquals(new IngredientIndex.Suggestion("tomate", 3), index.suggest("tom", 10).get(0));
+        assertTrue(index.suggest("c", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_after_rebuild_uses_the_new_state() {
+        index.rebuild(List.of(recipe(7L, "Pimiento", "Pimienta"), recipe(8L, "Pimienta")).iterator());
+        assertEquals(List.of(new IngredientIndex.Suggestion("pimienta", 2), new IngredientIndex.Suggestion("pimiento", 1)), index.suggest("pim", 10));
+        assertTrue(index.suggest("queso", 10).isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package dows.masterchef.search;
+
+import dows.masterchef.model.Recipe;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IngredientTokenBackfillTest {
+
+    private Recipe recipe(int i) {
+        Recipe r = new Recipe();
+        r.setId("id" + i);
+        r.setIngredients(List.of("Queso", "Tomate"));
+        return r;
+    }
+
+    @Test
+    void backfill_updates_missing_tokens_in_batches() {
+        MongoOperations mongo = mock(MongoOperations.class);
+        BulkOperations bulk = mock(BulkOperations.class);
+        int total = IngredientTokenBackfill.BATCH_SIZE + 3;
+        when(mongo.stream(any(Query.class), eq(Recipe.class))).thenReturn(IntStream.range(0, total).mapToObj(this::recipe));
+        when(mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class)).thenReturn(bulk);
+
+        long updated = new IngredientTokenBackfill(mongo).backfill();
+
+        assertEquals(total, updated);
+        verify(bulk, times(total)).updateOne(any(Query.class), any(Update.class));
+        verify(bulk, times(2)).execute();
+    }
+
+    @Test
+    void backfill_without_pending_recipes_does_nothing() {
+        MongoOperations mongo = mock(MongoOperations.class);
+        when(mongo.stream(any(Query.class), eq(Recipe.class))).thenReturn(Stream.empty());
+
+        assertEquals(0, new IngredientTokenBackfill(mongo).backfill());
+        verify(mongo, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Recipe.class));
+    }
+}
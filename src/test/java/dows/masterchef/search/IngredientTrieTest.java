@@ -0,0 +1,79 @@
+package dows.masterchef.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientTrieTest {
+
+    private static List<String> names(List<IngredientIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(IngredientIndex.Suggestion::name).collect(Collectors.toList());
+    }
+
+    @Test
+    void suggests_most_used_names_first_then_alphabetically() {
+        IngredientTrie trie = new IngredientTrie(true);
+        trie.add("queso", 3);
+        trie.add("queso manchego", 1);
+        trie.add("quesillo", 1);
+        trie.add("quinoa", 5);
+
+        assertEquals(List.of("queso", "quesillo", "queso manchego"), names(trie.suggest("que", 10)));
+        assertEquals(List.of(new IngredientIndex.Suggestion("quinoa", 5), new IngredientIndex.Suggestion("queso", 3)), trie.suggest("q", 2));
+        assertEquals(List.of("queso", "queso manchego"), names(trie.suggest("queso", 10)));
+        assertTrue(trie.suggest("x", 10).isEmpty());
+    }
+
+    @Test
+    void decrements_reorder_and_prune_names_without_recipes() {
+        IngredientTrie trie = new IngredientTrie(true);
+        trie.add("pan", 2);
+        trie.add("panela", 1);
+        trie.add("panela", 2);
+        assertEquals(List.of("panela", "pan"), names(trie.suggest("pa", 10)));
+
+        trie.add("panela", -3);
+        assertEquals(List.of("pan"), names(trie.suggest("pa", 10)));
+        assertTrue(trie.suggest("pane", 10).isEmpty());
+
+        trie.add("pan", -5);
+        trie.add("inexistente", -1);
+        assertTrue(trie.suggest("", 10).isEmpty());
+    }
+
+    @Test
+    void incremental_and_bulk_ranking_agree_with_a_full_sort() {
+        Random random = new Random(7);
+        String[] names = new String[300];
+        for (int i = 0; i < names.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0, len = 1 + random.nextInt(6); j < len; j++) { sb.append((char) ('a' + random.nextInt(4))); }
+            names[i] = sb.toString();
+        }
+        IngredientTrie incremental = new IngredientTrie(true);
+        IngredientTrie bulk = new IngredientTrie(false);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            String name = names[random.nextInt(names.length)];
+            int delta = counts.getOrDefault(name, 0) > 0 && random.nextInt(3) == 0 ? -1 : 1;
+            counts.merge(name, delta, Integer::sum);
+            incremental.add(name, delta);
+            bulk.add(name, delta);
+        }
+        bulk.rank();
+        for (String prefix : List.of("", "a", "ab", "cd", "dda")) {
+            List<String> expected = counts.entrySet().stream().filter(e -> e.getValue() > 0 && e.getKey().startsWith(prefix))
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(IngredientTrie.TOP).map(Map.Entry::getKey).collect(Collectors.toList());
+            assertEquals(expected, names(incremental.suggest(prefix, IngredientTrie.TOP)), prefix);
+            assertEquals(expected, names(bulk.suggest(prefix, IngredientTrie.TOP)), prefix);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package dows.masterchef.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientsTest {
+
+    @Test
+    void normalize_lowercases_strips_accents_and_collapses_separators() {
+        assertEquals("jalapeno picado", Ingredients.normalize("  Jalapeño,   PICADO "));
+        assertEquals("", Ingredients.normalize(null));
+    }
+
+    @Test
+    void tokens_are_distinct_sorted_and_without_stopwords() {
+        List<String> tokens = Ingredients.tokens(List.of("Aceite de oliva", "Queso manchego", "queso"));
+        assertEquals(List.of("aceite", "manchego", "oliva", "queso"), tokens);
+    }
+
+    @Test
+    void tokens_of_query_text() {
+        assertEquals(List.of("tomate"), Ingredients.tokens("Tomate"));
+        assertTrue(Ingredients.tokens("de la").isEmpty());
+        assertTrue(Ingredients.tokens((List<String>) null).isEmpty());
+    }
+}
@@ -0,0 +1,116 @@
+package dows.masterchef.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private static TrigramIndex index(String... tokens) {
+        TrigramIndex index = new TrigramIndex();
+        for (String t : tokens) { index.add(t); }
+        return index;
+    }
+
+    @Test
+    void distance_counts_insertions_substitutions_and_transpositions() {
+        assertEquals(0, TrigramIndex.distance("tomate", "tomate", 2));
+        assertEquals(1, TrigramIndex.distance("tomatte", "tomate", 2));
+        assertEquals(1, TrigramIndex.distance("queso", "qeuso", 2));
+        assertEquals(1, TrigramIndex.distance("manchgo", "manchego", 2));
+        assertEquals(3, TrigramIndex.distance("cebolla", "pimiento", 2));
+    }
+
+    @Test
+    void similar_finds_tokens_within_the_allowed_distance_closest_first() {
+        TrigramIndex index = index("tomate", "tomates", "tomillo", "queso", "manchego", "ajo");
+
+        assertEquals(List.of("tomate"), index.similar("tomatte"));
+        assertEquals(List.of("tomate", "tomates"), index.similar("tomate"));
+        assertEquals(List.of("queso"), index.similar("qeuso"));
+        assertEquals(List.of("manchego"), index.similar("mancheog"));
+        assertEquals(List.of("ajo"), index.similar("ajo"));
+        assertTrue(index.similar("aja").isEmpty());
+        assertEquals(List.of("tomate"), index.similar("tomat"));
+        assertTrue(index.similar("pimiento").isEmpty());
+    }
+
+    @Test
+    void removed_tokens_are_no_longer_suggested() {
+        TrigramIndex index = index("tomate", "tomates");
+        index.remove("tomates");
+        index.remove("trufa");
+
+        assertEquals(List.of("tomate"), index.similar("tomatte"));
+    }
+
+    @Test
+    void matches_a_brute_force_scan_of_the_vocabulary() {
+        Random random = new Random(7);
+        Set<String> vocabulary = new TreeSet<>();
+        while (vocabulary.size() < 2000) { vocabulary.add(word(random, 3 + random.nextInt(8))); }
+        TrigramIndex index = new TrigramIndex();
+        vocabulary.forEach(index::add);
+        List<String> words = new ArrayList<>(vocabulary);
+
+        for (int i = 0; i < 300; i++) {
+            String query = typo(random, words.get(random.nextInt(words.size())));
+            int max = TrigramIndex.maxDistance(query);
+            List<String> expected = vocabulary.stream()
+                    .filter(w -> osa(query, w) <= max)
+                    .sorted(Comparator.comparingInt((String w) -> osa(query, w)).thenComparing(w -> w))
+                    .limit(TrigramIndex.MAX_CANDIDATES).toList();
+            assertEquals(expected, index.similar(query), query);
+        }
+    }
+
+    // Matriz completa, sin banda ni corte: la referencia para comprobar TrigramIndex.distance
+    private static int osa(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) { d[i][0] = i; }
+        for (int j = 0; j <= b.length(); j++) { d[0][j] = j; }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) { d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1); }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    @Test
+    void bounded_distance_agrees_with_the_full_matrix() {
+        Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            String a = word(random, 3 + random.nextInt(10));
+            String b = random.nextBoolean() ? typo(random, typo(random, a)) : word(random, 1 + random.nextInt(10));
+            for (int max = 0; max <= 2; max++) { assertEquals(Math.min(osa(a, b), max + 1), TrigramIndex.distance(a, b, max), a + " " + b); }
+        }
+    }
+
+    private static String word(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) { sb.append((char) ('a' + random.nextInt(6))); }
+        return sb.toString();
+    }
+
+    private static String typo(Random random, String word) {
+        StringBuilder sb = new StringBuilder(word);
+        int at = random.nextInt(sb.length());
+        switch (random.nextInt(4)) {
+            case 0 -> sb.insert(at, (char) ('a' + random.nextInt(6)));
+            case 1 -> sb.deleteCharAt(at);
+            case 2 -> sb.setCharAt(at, (char) ('a' + random.nextInt(6)));
+            default -> { if (at + 1 < sb.length()) { char c = sb.charAt(at); sb.setCharAt(at, sb.charAt(at + 1)); sb.setCharAt(at + 1, c); } }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,176 @@
+package dows.masterchef.service;
+
+import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.dto.RecipePage;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.repository.ReactiveRecipeRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReactiveRecipeServiceTest {
+
+    private ReactiveRecipeRepository repo;
+    private ReactiveSequenceService sequence;
+    private RecipeChangeListener listener;
+    private ReactiveRecipeStatsService stats;
+    private ReactiveRecipeService service;
+
+    @BeforeEach
+    void setup() {
+        repo = mock(ReactiveRecipeRepository.class);
+        sequence = mock(ReactiveSequenceService.class);
+        listener = mock(RecipeChangeListener.class);
+        stats = mock(ReactiveRecipeStatsService.class);
+        when(stats.apply(any())).thenReturn(Mono.empty());
+        service = new ReactiveRecipeService(repo, sequence, List.of(listener), stats);
+    }
+
+    private RecipeInput baseInput(AuthorType type) {
+        RecipeInput in = new RecipeInput();
+        in.setTitle("Arepas");
+        in.setIngredients(List.of("Harina", "Queso"));
+        in.setSteps(List.of("Mezclar", "Asar"));
+        in.setChefName("Carla");
+        in.setAuthorType(type);
+        return in;
+    }
+
+    private static RecipeSummary summary(long seq) {
+        return new RecipeSummary(Long.valueOf(seq), "Arepas", "Carla", AuthorType.VIEWER, null);
+    }
+
+    @Test
+    void create_ShouldAssignSequenceSaveAndNotify() {
+        when(sequence.getNextSequence("recipes")).thenReturn(Mono.just(7L));
+        when(repo.save(any(Recipe.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(service.create(baseInput(AuthorType.VIEWER)))
+                .assertNext(r -> {
+                    assertEquals(7L, r.getSeq());
+                    assertEquals(List.of("harina", "queso"), r.getIngredientTokens());
+                })
+                .verifyComplete();
+        verify(listener).onSaved(any(Recipe.class));
+    }
+
+    @Test
+    void create_ParticipantWithoutSeason_ShouldFailWithoutReservingSequence() {
+        StepVerifier.create(service.create(baseInput(AuthorType.PARTICIPANT)))
+                .expectErrorSatisfies(e -> assertEquals(400, ((ApiException) e).getStatus()))
+                .verify();
+        verifyNoInteractions(sequence, repo);
+    }
+
+    @Test
+    void findBySeq_Missing_ShouldEmit404() {
+        when(repo.findBySeq(9L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.findBySeq(9))
+                .expectErrorSatisfies(e -> assertEquals(404, ((ApiException) e).getStatus()))
+                .verify();
+    }
+
+    @Test
+    void findAll_WithoutLimit_ShouldStreamUnlimited() {
+        when(repo.findAllBySeqGreaterThanOrderBySeqAsc(0L, Limit.unlimited())).thenReturn(Flux.just(summary(1), summary(2)));
+
+        StepVerifier.create(service.findAll(null)).expectNextCount(2).verifyComplete();
+    }
+
+    @Test
+    void byType_WithCursorAndLimit_ShouldResumeAfterCursor() {
+        when(repo.findAllByAuthorTypeAndSeqGreaterThanOrderBySeqAsc(AuthorType.CHEF, 5L, Limit.of(11)))
+                .thenReturn(Flux.just(summary(6)));
+
+        StepVerifier.create(service.byTypePage(AuthorType.CHEF, RecipePage.encodeCursor(5L), 10))
+                .expectNextMatches(p -> p.getItems().size() == 1 && p.getItems().get(0).getSeq() == 6L && p.getNextCursor() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    void findAllPage_WithMoreResults_ShouldReturnNextCursor() {
+        when(repo.findAllBySeqGreaterThanOrderBySeqAsc(0L, Limit.of(3))).thenReturn(Flux.just(summary(1), summary(2), summary(3)));
+        when(repo.findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(AuthorType.PARTICIPANT, 3, 2L, Limit.of(3)))
+                .thenReturn(Flux.just(summary(4)));
+
+        StepVerifier.create(service.findAllPage(null, 2))
+                .expectNextMatches(p -> p.getItems().size() == 2 && RecipePage.encodeCursor(2L).equals(p.getNextCursor()))
+                .verifyComplete();
+        StepVerifier.create(service.bySeasonPage(3, RecipePage.encodeCursor(2L), 2))
+                .expectNextMatches(p -> p.getItems().size() == 1 && p.getNextCursor() == null)
+                .verifyComplete();
+        StepVerifier.create(service.findAllPage(null, 0)).expectError(ApiException.class).verify();
+    }
+
+    @Test
+    void bySeason_ShouldQueryParticipants() {
+        when(repo.findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(AuthorType.PARTICIPANT, 3, 0L, Limit.unlimited()))
+                .thenReturn(Flux.just(summary(1)));
+
+        StepVerifier.create(service.bySeason(3, null)).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void searchByIngredient_ShouldUseTokensAndRejectBlank() {
+        when(repo.searchByIngredientTokens(List.of("queso"))).thenReturn(Flux.just(summary(1)));
+
+        StepVerifier.create(service.searchByIngredient("Queso")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.searchByIngredient(" ")).expectError(ApiException.class).verify();
+        StepVerifier.create(service.searchByIngredient("de")).verifyComplete();
+    }
+
+    @Test
+    void update_ShouldOverwriteFieldsAndNotify() {
+        Recipe existing = RecipeService.newRecipe(baseInput(AuthorType.VIEWER), 4L);
+        when(repo.findBySeq(4L)).thenReturn(Mono.just(existing));
+        when(repo.save(any(Recipe.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        RecipeInput in = baseInput(AuthorType.CHEF);
+        in.setTitle("Cachapas");
+        in.setIngredients(List.of("Maíz"));
+
+        StepVerifier.create(service.update(4, in))
+                .assertNext(r -> {
+                    assertEquals("Cachapas", r.getTitle());
+                    assertEquals(AuthorType.CHEF, r.getAuthorType());
+                    assertEquals(List.of("maiz"), r.getIngredientTokens());
+                })
+                .verifyComplete();
+        verify(listener).onSaved(existing);
+    }
+
+    @Test
+    void delete_ShouldRemoveAndNotify() {
+        Recipe deleted = new Recipe(); deleted.setSeq(4L); deleted.setAuthorType(AuthorType.CHEF);
+        when(repo.deleteBySeq(4L)).thenReturn(Mono.just(deleted));
+
+        StepVerifier.create(service.delete(4)).verifyComplete();
+        verify(listener).onDeleted(4L);
+        ArgumentCaptor<RecipeStatsService.Delta> delta = ArgumentCaptor.forClass(RecipeStatsService.Delta.class);
+        verify(stats).apply(delta.capture());
+        assertEquals(new Document("byAuthorType.CHEF", -1L).append("total", -1L), delta.getValue().toUpdate().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    void delete_Missing_ShouldNotNotify() {
+        when(repo.deleteBySeq(4L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.delete(4)).expectError(ApiException.class).verify();
+        verify(listener, never()).onDeleted(anyLong());
+        verify(stats, never()).apply(any());
+    }
+}
@@ -0,0 +1,95 @@
+package dows.masterchef.service;
+
+import dows.masterchef.model.Counter;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveSequenceServiceTest {
+
+    private final ReactiveMongoOperations mongo = mock(ReactiveMongoOperations.class);
+
+    // Simula el $inc atómico del contador
+    private AtomicLong fakeCounter() {
+        AtomicLong counter = new AtomicLong();
+        when(mongo.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Counter.class)))
+                .thenAnswer(inv -> {
+                    Update update = inv.getArgument(1);
+                    long inc = ((Number) update.getUpdateObject().get("$inc", org.bson.Document.class).get("seq")).longValue();
+                    return Mono.fromSupplier(() -> new Counter("recipes", counter.addAndGet(inc)));
+                });
+        return counter;
+    }
+
+    @Test
+    void gapFree_ShouldIssueOneFindAndModifyPerNumber() {
+        fakeCounter();
+        ReactiveSequenceService service = new ReactiveSequenceService(mongo, SequenceService.Strategy.GAP_FREE, 50);
+
+        StepVerifier.create(service.getNextSequence("recipes").concatWith(service.getNextSequence("recipes")))
+                .expectNext(1L, 2L)
+                .verifyComplete();
+        verify(mongo, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Counter.class));
+    }
+
+    @Test
+    void block_ShouldServeNumbersFromReservedRange() {
+        fakeCounter();
+        ReactiveSequenceService service = new ReactiveSequenceService(mongo, SequenceService.Strategy.BLOCK, 3);
+
+        StepVerifier.create(Flux.range(0, 4).concatMap(i -> service.getNextSequence("recipes")))
+                .expectNext(1L, 2L, 3L, 4L)
+                .verifyComplete();
+        verify(mongo, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Counter.class));
+    }
+
+    @Test
+    void block_ConcurrentCallers_ShouldGetUniqueNumbers() {
+        AtomicLong counter = fakeCounter();
+        ReactiveSequenceService service = new ReactiveSequenceService(mongo, SequenceService.Strategy.BLOCK, 10);
+
+        List<Long> values = Flux.range(0, 500)
+                .flatMap(i -> service.getNextSequence("recipes").subscribeOn(Schedulers.parallel()))
+                .collectList()
+                .block();
+
+        assertEquals(500, values.stream().distinct().count());
+        assertEquals(500, counter.get());
+    }
+
+    @Test
+    void block_RefillThatLosesTheRace_ShouldNotLeaveAStaleRange() {
+        AtomicLong counter = fakeCounter();
+        ReactiveSequenceService service = new ReactiveSequenceService(mongo, SequenceService.Strategy.BLOCK, 2);
+
+        // Dos suscriptores vieron la secuencia sin rango; el primero ya lo recargó ([1, 2]) cuando el segundo pide recargar
+        StepVerifier.create(service.getNextSequence("recipes")).expectNext(1L).verifyComplete();
+        StepVerifier.create(service.refill("recipes", null)).verifyComplete();
+        assertEquals(2, counter.get());
+
+        // Al agotar el bloque otra vez hay que reservar uno nuevo, no reutilizar el de la recarga perdida
+        StepVerifier.create(Flux.range(0, 3).concatMap(i -> service.getNextSequence("recipes")))
+                .expectNext(2L, 3L, 4L)
+                .verifyComplete();
+        verify(mongo, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Counter.class));
+    }
+
+    @Test
+    void constructor_ShouldRejectNonPositiveBlockSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReactiveSequenceService(mongo, SequenceService.Strategy.BLOCK, 0));
+    }
+}
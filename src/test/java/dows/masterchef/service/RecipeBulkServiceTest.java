@@ -0,0 +1,185 @@
+package dows.masterchef.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import dows.masterchef.dto.BulkItemResult;
+import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.repository.RecipeRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.auditing.IsNewAwareAuditingHandler;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mapping.context.PersistentEntities;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecipeBulkServiceTest {
+
+    private RecipeRepository repo;
+    private SequenceService sequence;
+    private RecipeChangeListener listener;
+    private RecipeStatsService stats;
+    private RecipeBulkService service;
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @BeforeEach
+    void setup() {
+        repo = mock(RecipeRepository.class);
+        sequence = mock(SequenceService.class);
+        listener = mock(RecipeChangeListener.class);
+        stats = mock(RecipeStatsService.class);
+        service = new RecipeBulkService(repo, sequence, validator, List.of(listener), stats, 2, 10);
+    }
+
+    private RecipeInput input(String title, AuthorType type) {
+        RecipeInput in = new RecipeInput();
+        in.setTitle(title);
+        in.setIngredients(List.of("Harina"));
+        in.setSteps(List.of("Mezclar"));
+        in.setChefName("Carla");
+        in.setAuthorType(type);
+        return in;
+    }
+
+    @Test
+    void createAll_reserves_once_and_inserts_in_chunks() {
+        when(sequence.reserve("recipes", 3)).thenReturn(Long.valueOf(13L));
+        List<List<Recipe>> chunks = new ArrayList<>();
+        when(repo.insertUnordered(anyList())).thenAnswer(a -> { chunks.add(new ArrayList<>(a.getArgument(0))); return List.of(); });
+
+        List<BulkItemResult> results = service.createAll(List.of(
+                input("A", AuthorType.VIEWER), input("", AuthorType.VIEWER), input("B", AuthorType.CHEF), input("C", AuthorType.PARTICIPANT),
+                input("D", AuthorType.VIEWER)));
+
+        verify(sequence, times(1)).reserve("recipes", 3);
+        assertEquals(2, chunks.size());
+        assertEquals(List.of(201, 400, 201, 400, 201), results.stream().map(BulkItemResult::getStatus).toList());
+        assertEquals(Long.valueOf(11L), results.get(0).getSeq());
+        assertEquals(Long.valueOf(12L), results.get(2).getSeq());
+        assertEquals(Long.valueOf(13L), results.get(4).getSeq());
+        assertTrue(results.get(1).getMessage().contains("title"));
+        assertTrue(results.get(3).getMessage().contains("season"));
+        verify(listener, times(3)).onSaved(any(Recipe.class));
+        assertEquals(new Document("byAuthorType.CHEF", 1L).append("byAuthorType.VIEWER", 2L).append("total", 3L), appliedInc());
+    }
+
+    @Test
+    void createAll_sets_createdAt_that_auditing_keeps() {
+        when(sequence.reserve("recipes", 1)).thenReturn(Long.valueOf(1L));
+        List<Recipe> inserted = new ArrayList<>();
+        when(repo.insertUnordered(anyList())).thenAnswer(a -> { inserted.addAll(a.getArgument(0)); return List.of(); });
+
+        service.createAll(List.of(input("A", AuthorType.VIEWER)));
+
+        // Lo que hace el callback de auditoría de bulkOps: con version 0 la receta no es nueva y sólo toca updatedAt
+        Recipe r = inserted.get(0);
+        MongoMappingContext mapping = new MongoMappingContext();
+        mapping.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        new IsNewAwareAuditingHandler(PersistentEntities.of(mapping)).markAudited(r);
+        assertEquals(Long.valueOf(0L), r.getVersion());
+        assertNotNull(r.getCreatedAt());
+        assertNotNull(r.getUpdatedAt());
+    }
+
+    private Document appliedInc() {
+        ArgumentCaptor<RecipeStatsService.Delta> delta = ArgumentCaptor.forClass(RecipeStatsService.Delta.class);
+        verify(stats).apply(delta.capture());
+        return (Document) delta.getValue().toUpdate().getUpdateObject().get("$inc");
+    }
+
+    @Test
+    void createAll_reports_write_errors_per_item() {
+        when(sequence.reserve("recipes", 2)).thenReturn(Long.valueOf(2L));
+        when(repo.insertUnordered(anyList())).thenReturn(List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1)));
+
+        List<BulkItemResult> results = service.createAll(List.of(input("A", AuthorType.VIEWER), input("B", AuthorType.VIEWER)));
+
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(409, results.get(1).getStatus());
+        assertNull(results.get(1).getSeq());
+        verify(listener, times(1)).onSaved(any(Recipe.class));
+        assertEquals(new Document("byAuthorType.VIEWER", 1L).append("total", 1L), appliedInc());
+    }
+
+    @Test
+    void createAll_without_valid_items_does_not_touch_counter() {
+        List<BulkItemResult> results = service.createAll(java.util.Arrays.asList(input(" ", AuthorType.VIEWER), null));
+        assertEquals(List.of(400, 400), results.stream().map(BulkItemResult::getStatus).toList());
+        verify(sequence, never()).reserve(anyString(), anyLong());
+        verify(repo, never()).insertUnordered(anyList());
+    }
+
+    @Test
+    void createAll_rejects_empty_or_oversized_requests() {
+        assertEquals(400, assertThrows(ApiException.class, () -> service.createAll(List.of())).getStatus());
+        List<RecipeInput> tooMany = new ArrayList<>();
+        for (int i = 0; i < 11; i++) { tooMany.add(input("R" + i, AuthorType.VIEWER)); }
+        assertEquals(400, assertThrows(ApiException.class, () -> service.createAll(tooMany)).getStatus());
+    }
+
+    @Test
+    void deleteAll_runs_one_deleteMany_and_notifies_each_seq() {
+        when(repo.deleteBySeqIn(any())).thenReturn(2L);
+        when(repo.findAllBySeqInOrderBySeqAsc(List.of(1L, 2L, 3L), RecipeSummary.class))
+                .thenReturn(List.of(new RecipeSummary(1L, "A", "C", AuthorType.VIEWER, null), new RecipeSummary(3L, "B", "C", AuthorType.PARTICIPANT, 2)));
+
+        assertEquals(2L, service.deleteAll(List.of(1L, 2L, 2L, 3L)));
+        assertEquals(new Document("byAuthorType.PARTICIPANT", -1L).append("byAuthorType.VIEWER", -1L).append("bySeason.2", -1L).append("total", -2L),
+                appliedInc());
+
+        verify(repo).deleteBySeqIn(new LinkedHashSet<>(List.of(1L, 2L, 3L)));
+        verify(listener).onDeleted(1L);
+        verify(listener).onDeleted(2L);
+        verify(listener).onDeleted(3L);
+    }
+
+    @Test
+    void deleteAll_rejects_empty_or_oversized_requests() {
+        assertThrows(ApiException.class, () -> service.deleteAll(List.of()));
+        assertThrows(ApiException.class, () -> service.deleteAll(LongStream.rangeClosed(1, 11).boxed().toList()));
+        verify(repo, never()).deleteBySeqIn(any());
+    }
+
+    @Test
+    void deleteSeason_deletes_exactly_the_participant_seqs_of_that_season_in_bounded_batches() {
+        // chunkSize 2: un lote lleno, otro incompleto y no se pide un tercero
+        when(repo.findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(AuthorType.PARTICIPANT, 3, 0L, Limit.of(2)))
+                .thenReturn(List.of(new RecipeSummary(4L, "A", "C", AuthorType.PARTICIPANT, 3), new RecipeSummary(9L, "B", "C", AuthorType.PARTICIPANT, 3)));
+        when(repo.findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(AuthorType.PARTICIPANT, 3, 9L, Limit.of(2)))
+                .thenReturn(List.of(new RecipeSummary(12L, "C", "C", AuthorType.PARTICIPANT, 3)));
+        when(repo.deleteBySeqIn(List.of(4L, 9L))).thenReturn(2L);
+        when(repo.deleteBySeqIn(List.of(12L))).thenReturn(1L);
+
+        assertEquals(3L, service.deleteSeason(3));
+        verify(listener).onDeleted(4L);
+        verify(listener).onDeleted(9L);
+        verify(listener).onDeleted(12L);
+        ArgumentCaptor<RecipeStatsService.Delta> delta = ArgumentCaptor.forClass(RecipeStatsService.Delta.class);
+        verify(stats, times(2)).apply(delta.capture());
+        assertEquals(List.of(new Document("byAuthorType.PARTICIPANT", -2L).append("bySeason.3", -2L).append("total", -2L),
+                        new Document("byAuthorType.PARTICIPANT", -1L).append("bySeason.3", -1L).append("total", -1L)),
+                delta.getAllValues().stream().map(d -> d.toUpdate().getUpdateObject().get("$inc")).toList());
+        verify(repo, times(2)).findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(eq(AuthorType.PARTICIPANT), eq(3), anyLong(), any());
+
+        when(repo.findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(AuthorType.PARTICIPANT, 5, 0L, Limit.of(2))).thenReturn(List.of());
+        assertEquals(0L, service.deleteSeason(5));
+        verify(repo, times(2)).deleteBySeqIn(any());
+    }
+}
@@ -0,0 +1,134 @@
+package dows.masterchef.service;
+
+import dows.masterchef.model.Recipe;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeCacheTest {
+
+    private static Recipe recipe(long seq, String title) {
+        Recipe r = new Recipe();
+        r.setSeq(Long.valueOf(seq));
+        r.setTitle(title);
+        return r;
+    }
+
+    @Test
+    void get_loads_once_and_then_serves_from_cache() {
+        RecipeCache cache = new RecipeCache(100, Duration.ofMinutes(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Arepas", cache.get(1L, s -> { loads.incrementAndGet(); return Optional.of(recipe(s, "Arepas")); }).get().getTitle());
+        }
+
+        assertEquals(1, loads.get());
+        Map<String, Object> stats = cache.stats();
+        assertEquals(2L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+    }
+
+    @Test
+    void getAll_loads_only_the_misses_in_one_call() {
+        RecipeCache cache = new RecipeCache(100, Duration.ofMinutes(5));
+        cache.onSaved(recipe(1L, "Arepas"));
+        List<Set<? extends Long>> loads = new ArrayList<>();
+
+        Map<Long, Recipe> found = cache.getAll(List.of(1L, 2L, 3L), missing -> {
+            loads.add(Set.copyOf(missing));
+            return Map.of(2L, recipe(2L, "Tamales"));
+        });
+        assertEquals(Set.of(1L, 2L), found.keySet());
+        assertEquals(List.of(Set.of(2L, 3L)), loads);
+
+        cache.getAll(List.of(1L, 2L, 3L), missing -> { loads.add(Set.copyOf(missing)); return Map.of(); });
+        assertEquals(Set.of(3L), loads.get(1));
+    }
+
+    @Test
+    void getAll_without_cache_loads_everything() {
+        Map<Long, Recipe> found = RecipeCache.disabled().getAll(List.of(1L, 2L),
+                missing -> missing.stream().collect(Collectors.toMap(s -> (Long) s, s -> recipe(s, "Receta"))));
+        assertEquals(Set.of(1L, 2L), found.keySet());
+    }
+
+    @Test
+    void missing_recipes_are_not_cached() {
+        RecipeCache cache = new RecipeCache(100, Duration.ofMinutes(5));
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(9L, s -> { loads.incrementAndGet(); return Optional.empty(); });
+        assertTrue(cache.get(9L, s -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void writes_refresh_and_deletes_invalidate() {
+        RecipeCache cache = new RecipeCache(100, Duration.ofMinutes(5));
+        cache.get(1L, s -> Optional.of(recipe(s, "Viejo")));
+
+        cache.onSaved(recipe(1L, "Nuevo"));
+        assertEquals("Nuevo", cache.get(1L, s -> Optional.of(recipe(s, "Mongo"))).get().getTitle());
+
+        cache.onDeleted(1L);
+        assertEquals("Mongo", cache.get(1L, s -> Optional.of(recipe(s, "Mongo"))).get().getTitle());
+    }
+
+    @Test
+    void load_runs_in_the_caller_thread_outside_the_map_lock() throws Exception {
+        RecipeCache cache = new RecipeCache(100, Duration.ofMinutes(5));
+        java.util.concurrent.CountDownLatch loading = new java.util.concurrent.CountDownLatch(1);
+        java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Thread caller = Thread.currentThread();
+        Thread slow = Thread.ofVirtual().start(() -> cache.get(1L, s -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try { release.await(); } catch (InterruptedException ex) { Thread.currentThread().interrupt(); }
+            return Optional.of(recipe(s, "Arepas"));
+        }));
+        loading.await();
+        // Mientras carga el 1 se puede escribir en la caché y la carga del mismo seq se comparte
+        cache.onSaved(recipe(2L, "Tamales"));
+        java.util.concurrent.CompletableFuture<Optional<Recipe>> waiting = java.util.concurrent.CompletableFuture.supplyAsync(
+                () -> cache.get(1L, s -> { loads.incrementAndGet(); return Optional.empty(); }));
+        release.countDown();
+        slow.join();
+        assertEquals("Arepas", waiting.get().get().getTitle());
+        assertEquals(1, loads.get());
+        assertEquals("Tamales", cache.get(2L, s -> Optional.empty()).get().getTitle());
+
+        Thread[] loader = new Thread[1];
+        cache.get(3L, s -> { loader[0] = Thread.currentThread(); return Optional.empty(); });
+        assertSame(caller, loader[0]);
+    }
+
+    @Test
+    void load_errors_reach_the_caller_and_are_not_cached() {
+        RecipeCache cache = new RecipeCache(100, Duration.ofMinutes(5));
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, s -> { throw new IllegalStateException("mongo down"); }));
+        assertThrows(IllegalStateException.class, () -> cache.getAll(List.of(1L), missing -> { throw new IllegalStateException("mongo down"); }));
+        assertEquals("Arepas", cache.get(1L, s -> Optional.of(recipe(s, "Arepas"))).get().getTitle());
+    }
+
+    @Test
+    void disabled_cache_always_loads() {
+        RecipeCache cache = RecipeCache.disabled();
+        AtomicInteger loads = new AtomicInteger();
+        cache.onSaved(recipe(1L, "A"));
+        cache.onDeleted(1L);
+        cache.get(1L, s -> { loads.incrementAndGet(); return Optional.of(recipe(s, "A")); });
+        cache.get(1L, s -> { loads.incrementAndGet(); return Optional.of(recipe(s, "A")); });
+        assertEquals(2, loads.get());
+        assertEquals(Boolean.FALSE, cache.stats().get("enabled"));
+    }
+}
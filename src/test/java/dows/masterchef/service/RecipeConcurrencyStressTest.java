@@ -0,0 +1,139 @@
+package dows.masterchef.service;
+
+import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Escritores en paralelo sobre la misma receta contra un repositorio en memoria con la semántica de @Version de
+// Spring Data (save compara la versión leída con la guardada y la incrementa; si no coincide, OptimisticLockingFailure)
+class RecipeConcurrencyStressTest {
+
+    private static final int WRITERS = 8;
+    private static final int WRITES_PER_WRITER = 50;
+
+    private final Map<Long, Recipe> store = new ConcurrentHashMap<>();
+    private RecipeService service;
+
+    private static Recipe copy(Recipe r) {
+        Recipe c = new Recipe();
+        c.setSeq(r.getSeq()); c.setTitle(r.getTitle()); c.setIngredients(r.getIngredients()); c.setIngredientTokens(r.getIngredientTokens());
+        c.setSteps(r.getSteps()); c.setChefName(r.getChefName()); c.setAuthorType(r.getAuthorType()); c.setSeason(r.getSeason());
+        c.setVersion(r.getVersion());
+        return c;
+    }
+
+    @BeforeEach
+    void setup() {
+        RecipeRepository repo = mock(RecipeRepository.class);
+        when(repo.findBySeq(any())).thenAnswer(a -> Optional.ofNullable(store.get(a.<Long>getArgument(0))).map(RecipeConcurrencyStressTest::copy));
+        when(repo.save(any())).thenAnswer(a -> {
+            Recipe r = a.getArgument(0);
+            Recipe saved = copy(r);
+            saved.setVersion(r.getVersion() + 1);
+            Recipe previous = store.computeIfPresent(r.getSeq(), (seq, current) -> current.getVersion().equals(r.getVersion()) ? saved : current);
+            if (previous != saved) { throw new OptimisticLockingFailureException("version " + r.getVersion() + " is stale"); }
+            return copy(saved);
+        });
+        service = new RecipeService(repo, mock(SequenceService.class), List.of(), RecipeCache.disabled(), RecipeStatsService.disabled(), 2);
+        Recipe initial = new Recipe();
+        initial.setSeq(1L); initial.setTitle("Arepas"); initial.setIngredients(List.of("Harina")); initial.setSteps(List.of("inicio"));
+        initial.setChefName("Carla"); initial.setAuthorType(AuthorType.CHEF); initial.setVersion(0L);
+        store.put(1L, initial);
+    }
+
+    private static RecipeInput input(Recipe r, List<String> steps) {
+        RecipeInput in = new RecipeInput();
+        in.setTitle(r.getTitle()); in.setIngredients(r.getIngredients()); in.setSteps(steps);
+        in.setChefName(r.getChefName()); in.setAuthorType(r.getAuthorType()); in.setSeason(r.getSeason());
+        return in;
+    }
+
+    private static <T> List<T> runWriters(java.util.function.IntFunction<T> writer) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int id = w;
+                futures.add(pool.submit(() -> { start.await(); return writer.apply(id); }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> f : futures) { results.add(f.get()); }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Lectura-modificación-escritura con If-Match: cada escritor añade un paso y, ante un 412, relee y reintenta
+    @Test
+    void readModifyWrite_withIfMatch_loses_no_update() throws Exception {
+        runWriters(id -> {
+            for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                while (true) {
+                    Recipe current = service.findBySeq(1L);
+                    List<String> steps = new ArrayList<>(current.getSteps());
+                    steps.add("paso-" + id + "-" + i);
+                    try {
+                        service.update(1L, input(current, steps), current.getVersion());
+                        break;
+                    } catch (ApiException ex) {
+                        assertEquals(412, ex.getStatus());
+                    }
+                }
+            }
+            return null;
+        });
+
+        Recipe last = store.get(1L);
+        int total = WRITERS * WRITES_PER_WRITER;
+        assertEquals(total + 1, last.getSteps().size());
+        assertEquals(total + 1, new HashSet<>(last.getSteps()).size());
+        assertEquals(total, last.getVersion());
+    }
+
+    // PUT sin If-Match: el servidor reintenta los conflictos; cada escritura aceptada queda reflejada en la versión
+    @Test
+    void blindPuts_are_either_applied_or_rejected_with_409() throws Exception {
+        List<int[]> outcomes = runWriters(id -> {
+            int[] counts = new int[2];
+            for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                Recipe base = store.get(1L);
+                try {
+                    service.update(1L, input(base, List.of("paso-" + id + "-" + i)));
+                    counts[0]++;
+                } catch (ApiException ex) {
+                    assertEquals(409, ex.getStatus());
+                    counts[1]++;
+                }
+            }
+            return counts;
+        });
+
+        int applied = outcomes.stream().mapToInt(c -> c[0]).sum();
+        int rejected = outcomes.stream().mapToInt(c -> c[1]).sum();
+        assertEquals(WRITERS * WRITES_PER_WRITER, applied + rejected);
+        assertEquals(applied, store.get(1L).getVersion());
+    }
+}
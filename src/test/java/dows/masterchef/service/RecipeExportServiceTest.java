@@ -0,0 +1,68 @@
+package dows.masterchef.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecipeExportServiceTest {
+
+    private RecipeRepository repo;
+    private RecipeExportService service;
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @BeforeEach
+    void setup() {
+        repo = mock(RecipeRepository.class);
+        service = new RecipeExportService(repo, mapper);
+    }
+
+    private Recipe recipe(long seq) {
+        Recipe r = new Recipe();
+        r.setSeq(Long.valueOf(seq));
+        r.setTitle("Receta " + seq);
+        r.setIngredients(List.of("Queso"));
+        r.setSteps(List.of("Mezclar"));
+        r.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        return r;
+    }
+
+    @Test
+    void export_writes_one_json_line_per_recipe_and_closes_cursor() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(repo.streamAllByOrderBySeqAsc()).thenReturn(Stream.of(recipe(1), recipe(2)).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = service.exportNdjson(null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertEquals(1L, mapper.readValue(lines[0], Recipe.class).getSeq());
+        assertEquals("Receta 2", mapper.readValue(lines[1], Recipe.class).getTitle());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void export_picks_query_by_filters() throws Exception {
+        when(repo.streamAllByAuthorTypeOrderBySeqAsc(AuthorType.CHEF)).thenReturn(Stream.of(recipe(3)));
+        when(repo.streamAllBySeasonOrderBySeqAsc(Integer.valueOf(2))).thenReturn(Stream.empty());
+        when(repo.streamAllByAuthorTypeAndSeasonOrderBySeqAsc(AuthorType.PARTICIPANT, Integer.valueOf(2))).thenReturn(Stream.of(recipe(4), recipe(5)));
+
+        assertEquals(1, service.exportNdjson(AuthorType.CHEF, null, new ByteArrayOutputStream()));
+        assertEquals(0, service.exportNdjson(null, 2, new ByteArrayOutputStream()));
+        assertEquals(2, service.exportNdjson(AuthorType.PARTICIPANT, 2, new ByteArrayOutputStream()));
+    }
+}
@@ -0,0 +1,120 @@
+package dows.masterchef.service;
+
+import dows.masterchef.dto.RecipePage;
+import dows.masterchef.dto.RecipeSummary;
+import dows.masterchef.dto.RecipeTextMatch;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.repository.RecipeRepository;
+import dows.masterchef.search.IngredientIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecipeSearchServiceTest {
+
+    private RecipeRepository repo;
+    private IngredientIndex index;
+    private RecipeSearchService service;
+
+    @BeforeEach
+    void setup() {
+        repo = mock(RecipeRepository.class);
+        index = new IngredientIndex();
+        service = new RecipeSearchService(repo, index);
+        for (long seq = 1; seq <= 5; seq++) {
+            index.put(seq, seq % 2 == 0 ? List.of("Queso", "Tomate", "Cebolla") : List.of("Queso", "Tomate"));
+        }
+        when(repo.findAllBySeqInOrderBySeqAsc(anyList(), eq(RecipeSummary.class))).thenAnswer(a -> {
+            List<Long> seqs = a.getArgument(0);
+            return seqs.stream().map(s -> new RecipeSummary(s, "Receta " + s, "Carla", AuthorType.VIEWER, null)).collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    void byIngredients_pages_matches_in_seq_order() {
+        RecipePage<RecipeSummary> first = service.byIngredients(List.of("queso", "tomate"), null, List.of("cebolla"), null, 2);
+        assertEquals(List.of(1L, 3L), first.getItems().stream().map(RecipeSummary::getSeq).collect(Collectors.toList()));
+        assertNotNull(first.getNextCursor());
+
+        RecipePage<RecipeSummary> second = service.byIngredients(List.of("queso", "tomate"), null, List.of("cebolla"), first.getNextCursor(), 2);
+        assertEquals(List.of(5L), second.getItems().stream().map(RecipeSummary::getSeq).collect(Collectors.toList()));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void byIngredients_without_matches_does_not_query_mongo() {
+        RecipePage<RecipeSummary> page = service.byIngredients(null, List.of("trufa"), null, null, null);
+        assertTrue(page.getItems().isEmpty());
+        verify(repo, never()).findAllBySeqInOrderBySeqAsc(anyList(), any());
+    }
+
+    @Test
+    void byIngredients_without_terms_throws_400() {
+        ApiException ex = assertThrows(ApiException.class, () -> service.byIngredients(List.of(), null, null, null, null));
+        assertEquals(400, ex.getStatus());
+    }
+
+    @Test
+    void pantry_returns_recipes_with_missing_counts() {
+        List<dows.masterchef.dto.PantryMatch> matches = service.pantry(List.of("queso", "tomate"), 1, null);
+        assertEquals(List.of(1L, 3L, 5L, 2L, 4L), matches.stream().map(m -> m.getRecipe().getSeq()).collect(Collectors.toList()));
+        assertEquals(0, matches.get(0).getMissing());
+        assertEquals(List.of("cebolla"), matches.get(3).getMissingIngredients());
+    }
+
+    @Test
+    void pantry_validates_params() {
+        assertEquals(400, assertThrows(ApiException.class, () -> service.pantry(List.of(), 0, null)).getStatus());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.pantry(List.of("queso"), -1, null)).getStatus());
+        assertTrue(service.pantry(List.of("trufa"), 0, null).isEmpty());
+    }
+
+    @Test
+    void text_pages_by_relevance_with_score_and_seq_cursor() {
+        when(repo.searchText("horno 180", null, 0L, 3)).thenReturn(List.of(
+                new RecipeTextMatch(7L, "Pan", "Carla", AuthorType.CHEF, null, 2.5),
+                new RecipeTextMatch(2L, "Torta", "Carla", AuthorType.CHEF, null, 1.25),
+                new RecipeTextMatch(9L, "Arepa", "Carla", AuthorType.CHEF, null, 1.25)));
+        when(repo.searchText("horno 180", 1.25, 2L, 3)).thenReturn(List.of(new RecipeTextMatch(9L, "Arepa", "Carla", AuthorType.CHEF, null, 1.25)));
+
+        RecipePage<RecipeSummary> first = service.text(" horno 180 ", null, 2);
+        assertEquals(List.of(7L, 2L), first.getItems().stream().map(RecipeSummary::getSeq).collect(Collectors.toList()));
+
+        RecipePage<RecipeSummary> second = service.text("horno 180", first.getNextCursor(), 2);
+        assertEquals(List.of(9L), second.getItems().stream().map(RecipeSummary::getSeq).collect(Collectors.toList()));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void text_requires_a_query_and_a_valid_cursor() {
+        assertEquals(400, assertThrows(ApiException.class, () -> service.text(" ", null, null)).getStatus());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.text("horno", "bm8tY3Vyc29y", null)).getStatus());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.text("horno", RecipePage.encodeCursor(3L), null)).getStatus());
+        verify(repo, never()).searchText(any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void fuzzyByIngredient_resolves_typos_through_the_index() {
+        assertEquals(List.of(2L, 4L), service.fuzzyByIngredient("Cebola").stream().map(RecipeSummary::getSeq).collect(Collectors.toList()));
+        assertTrue(service.fuzzyByIngredient("trufa").isEmpty());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.fuzzyByIngredient(" ")).getStatus());
+    }
+
+    @Test
+    void suggestIngredients_reads_the_in_memory_trie_and_validates_params() {
+        assertEquals(List.of(new IngredientIndex.Suggestion("queso", 5)), service.suggestIngredients("Qu", 1));
+        assertEquals(List.of(new IngredientIndex.Suggestion("tomate", 5)), service.suggestIngredients("t", null));
+        assertEquals(400, assertThrows(ApiException.class, () -> service.suggestIngredients(" ", 10)).getStatus());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.suggestIngredients(null, null)).getStatus());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.suggestIngredients("q", 0)).getStatus());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.suggestIngredients("q", IngredientIndex.MAX_SUGGESTIONS + 1)).getStatus());
+        verifyNoInteractions(repo);
+    }
+}
@@ -1,20 +1,32 @@
 package dows.masterchef.service;
 
+import dows.masterchef.dto.RecipeBatch;
 import dows.masterchef.dto.RecipeInput;
+import dows.masterchef.dto.RecipePage;
+import dows.masterchef.dto.RecipePatch;
+import dows.masterchef.dto.RecipeSummary;
 import dows.masterchef.exception.ApiException;
 import dows.masterchef.model.AuthorType;
 import dows.masterchef.model.Recipe;
 import dows.masterchef.repository.RecipeRepository;
+import dows.masterchef.repository.RecipeRepositoryCustom;
 
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class RecipeServiceTest {
@@ -40,6 +52,10 @@ class RecipeServiceTest {
         return in;
     }
 
+    private static RecipeSummary summary(long seq) {
+        return new RecipeSummary(Long.valueOf(seq), "Arepas", "Carla", AuthorType.VIEWER, null);
+    }
+
     @Test
     void create_viewer_ok_sets_seq_and_saves() {
         when(sequence.getNextSequence("recipes")).thenReturn(Long.valueOf(10L));
@@ -66,12 +82,83 @@ class RecipeServiceTest {
 
     @Test
     void findAll_returns_sorted_list() {
-        Recipe r1 = new Recipe(); r1.setSeq(Long.valueOf(1L));
-        Recipe r2 = new Recipe(); r2.setSeq(Long.valueOf(2L));
-        when(repo.findAllByOrderBySeqAsc()).thenReturn(Arrays.asList(r1, r2));
-        List<Recipe> list = service.findAll();
-        assertEquals(2, list.size());
-        assertEquals(1L, list.get(0).getSeq());
+        RecipeSummary r1 = summary(1L);
+        RecipeSummary r2 = summary(2L);
+        when(repo.findAllBySeqGreaterThanOrderBySeqAsc(Long.valueOf(0L), Limit.of(RecipePage.DEFAULT_SIZE + 1)))
+                .thenReturn(Arrays.asList(r1, r2));
+        RecipePage<RecipeSummary> page = service.findAll(null, null);
+        assertEquals(2, page.getItems().size());
+        assertEquals(1L, page.getItems().get(0).getSeq());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void findAll_with_more_results_returns_cursor_to_next_page() {
+        RecipeSummary r1 = summary(4L);
+        RecipeSummary r2 = summary(7L);
+        RecipeSummary r3 = summary(9L);
+        when(repo.findAllBySeqGreaterThanOrderBySeqAsc(Long.valueOf(0L), Limit.of(3))).thenReturn(Arrays.asList(r1, r2, r3));
+        RecipePage<RecipeSummary> first = service.findAll(null, 2);
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+
+        when(repo.findAllBySeqGreaterThanOrderBySeqAsc(Long.valueOf(7L), Limit.of(3))).thenReturn(List.of(r3));
+        RecipePage<RecipeSummary> second = service.findAll(first.getNextCursor(), 2);
+        assertEquals(9L, second.getItems().get(0).getSeq());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void findAll_invalid_limit_or_cursor_throws_400() {
+        assertEquals(400, assertThrows(ApiException.class, () -> service.findAll(null, 0)).getStatus());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.findAll(null, RecipePage.MAX_SIZE + 1)).getStatus());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.findAll("no-es-un-cursor!", null)).getStatus());
+    }
+
+    @Test
+    void byType_and_bySeason_use_keyset_queries() {
+        RecipeSummary r = summary(11L);
+        when(repo.findAllByAuthorTypeAndSeqGreaterThanOrderBySeqAsc(AuthorType.CHEF, Long.valueOf(10L), Limit.of(6))).thenReturn(List.of(r));
+        when(repo.findAllByAuthorTypeAndSeasonAndSeqGreaterThanOrderBySeqAsc(AuthorType.PARTICIPANT, Integer.valueOf(2), Long.valueOf(0L), Limit.of(6)))
+                .thenReturn(List.of(r));
+        assertEquals(1, service.byType(AuthorType.CHEF, RecipePage.encodeCursor(10L), 5).getItems().size());
+        assertEquals(1, service.bySeason(2, null, 5).getItems().size());
+    }
+
+    @Test
+    void findAllBySeq_keeps_request_order_and_reports_missing() {
+        RecipeCache cache = new RecipeCache(10, java.time.Duration.ofMinutes(1));
+        service = new RecipeService(repo, sequence, List.of(cache), cache);
+        Recipe cached = new Recipe(); cached.setSeq(Long.valueOf(9L));
+        cache.onSaved(cached);
+        Recipe one = new Recipe(); one.setSeq(Long.valueOf(1L));
+        Recipe five = new Recipe(); five.setSeq(Long.valueOf(5L));
+        when(repo.findAllBySeqInOrderBySeqAsc(anyList(), eq(Recipe.class))).thenReturn(List.of(one, five));
+
+        RecipeBatch batch = service.findAllBySeq(List.of(5L, 9L, 7L, 1L, 5L));
+
+        assertEquals(List.of(5L, 9L, 1L), batch.getItems().stream().map(Recipe::getSeq).toList());
+        assertEquals(List.of(7L), batch.getMissing());
+        verify(repo).findAllBySeqInOrderBySeqAsc(List.of(5L, 7L, 1L), Recipe.class);
+    }
+
+    @Test
+    void findAllBySeq_validates_the_list() {
+        assertEquals(400, assertThrows(ApiException.class, () -> service.findAllBySeq(List.of())).getStatus());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.findAllBySeq(java.util.Arrays.asList(1L, null))).getStatus());
+        List<Long> tooMany = java.util.stream.LongStream.rangeClosed(1, RecipeBatch.MAX_SEQS + 1).boxed().toList();
+        assertEquals(400, assertThrows(ApiException.class, () -> service.findAllBySeq(tooMany)).getStatus());
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void lookup_pages_by_the_single_given_field() {
+        when(repo.lookup(RecipeRepositoryCustom.LookupField.CHEF_NAME, "jose", true, 10L, 6)).thenReturn(List.of(summary(11L)));
+        RecipePage<RecipeSummary> page = service.lookup(null, " jose ", "", true, RecipePage.encodeCursor(10L), 5);
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.lookup("Tortilla", "Ana", null, false, null, null)).getStatus());
+        assertEquals(400, assertThrows(ApiException.class, () -> service.lookup(null, " ", null, false, null, null)).getStatus());
     }
 
     @Test
@@ -95,6 +182,22 @@ class RecipeServiceTest {
         assertEquals(400, ex.getStatus());
     }
 
+    @Test
+    void searchByIngredient_uses_normalized_tokens() {
+        RecipeSummary r = summary(2L);
+        when(repo.searchByIngredientTokens(List.of("jalapeno", "queso"))).thenReturn(List.of(r));
+        assertEquals(1, service.searchByIngredient("Queso Jalapeño").size());
+        assertTrue(service.searchByIngredient("de").isEmpty());
+    }
+
+    @Test
+    void create_stores_ingredient_tokens() {
+        when(sequence.getNextSequence("recipes")).thenReturn(Long.valueOf(1L));
+        when(repo.save(any())).thenAnswer(a -> a.getArgument(0));
+        Recipe out = service.create(baseInput(AuthorType.VIEWER));
+        assertEquals(List.of("harina", "queso"), out.getIngredientTokens());
+    }
+
     @Test
     void update_ok_overwrites_fields() {
         Recipe existing = new Recipe();
@@ -110,10 +213,243 @@ class RecipeServiceTest {
     }
 
     @Test
-    void delete_ok_removes_entity() {
-        Recipe existing = new Recipe(); existing.setSeq(Long.valueOf(5L));
-        when(repo.findBySeq(Long.valueOf(5L))).thenReturn(Optional.of(existing));
+    void writes_notify_change_listeners() {
+        RecipeChangeListener listener = mock(RecipeChangeListener.class);
+        service = new RecipeService(repo, sequence, List.of(listener), RecipeCache.disabled());
+        when(sequence.getNextSequence("recipes")).thenReturn(Long.valueOf(6L));
+        when(repo.save(any())).thenAnswer(a -> a.getArgument(0));
+        Recipe created = service.create(baseInput(AuthorType.VIEWER));
+        verify(listener).onSaved(created);
+
+        when(repo.deleteBySeq(Long.valueOf(6L))).thenReturn(Optional.of(created));
+        service.delete(6L);
+        verify(listener).onDeleted(6L);
+    }
+
+    @Test
+    void create_goes_through_the_coalescer_when_enabled() {
+        RecipeChangeListener listener = mock(RecipeChangeListener.class);
+        RecipeStatsService stats = mock(RecipeStatsService.class);
+        RecipeWriteCoalescer coalescer = mock(RecipeWriteCoalescer.class);
+        when(coalescer.isEnabled()).thenReturn(true);
+        when(coalescer.insert(any())).thenAnswer(a -> { Recipe r = a.getArgument(0); r.setSeq(Long.valueOf(21L)); return r; });
+        service = new RecipeService(repo, sequence, List.of(listener), RecipeCache.disabled(), stats, 2, coalescer);
+
+        Recipe created = service.create(baseInput(AuthorType.VIEWER));
+
+        assertEquals(21L, created.getSeq());
+        assertEquals(List.of("harina", "queso"), created.getIngredientTokens());
+        verify(listener).onSaved(created);
+        verify(repo, never()).save(any());
+        verify(sequence, never()).getNextSequence(any());
+        // Las estadísticas las suma el coalescer por lote
+        verify(stats, never()).apply(any());
+    }
+
+    @Test
+    void findBySeq_uses_cache_but_update_reads_from_repository() {
+        RecipeCache cache = new RecipeCache(10, java.time.Duration.ofMinutes(1));
+        service = new RecipeService(repo, sequence, List.of(cache), cache);
+        Recipe stored = new Recipe(); stored.setSeq(Long.valueOf(4L)); stored.setTitle("Original");
+        when(repo.findBySeq(Long.valueOf(4L))).thenAnswer(a -> { Recipe copy = new Recipe(); copy.setSeq(Long.valueOf(4L)); copy.setTitle("Original"); return Optional.of(copy); });
+        when(repo.save(any())).thenAnswer(a -> a.getArgument(0));
+
+        Recipe cached = service.findBySeq(4L);
+        assertSame(cached, service.findBySeq(4L));
+        verify(repo, times(1)).findBySeq(Long.valueOf(4L));
+
+        Recipe updated = service.update(4L, baseInput(AuthorType.CHEF));
+        assertEquals("Original", cached.getTitle());
+        assertSame(updated, service.findBySeq(4L));
+        assertEquals(1L, service.cacheStats().get("misses"));
+    }
+
+    @Test
+    void delete_ok_removes_entity_without_reading_it() {
+        when(repo.deleteBySeq(Long.valueOf(5L))).thenReturn(Optional.of(new Recipe()));
         service.delete(5L);
-        verify(repo).delete(existing);
+        verify(repo).deleteBySeq(Long.valueOf(5L));
+        verify(repo, never()).findBySeq(any());
+    }
+
+    @Test
+    void delete_missing_returns_404_and_does_not_notify() {
+        RecipeChangeListener listener = mock(RecipeChangeListener.class);
+        service = new RecipeService(repo, sequence, List.of(listener), RecipeCache.disabled());
+        when(repo.deleteBySeq(Long.valueOf(5L))).thenReturn(Optional.empty());
+        assertEquals(404, assertThrows(ApiException.class, () -> service.delete(5L)).getStatus());
+        verifyNoInteractions(listener);
+    }
+
+    @Test
+    void patch_sets_only_present_fields_in_one_call() {
+        RecipeChangeListener listener = mock(RecipeChangeListener.class);
+        service = new RecipeService(repo, sequence, List.of(listener), RecipeCache.disabled());
+        Recipe modified = new Recipe(); modified.setSeq(Long.valueOf(3L));
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        when(repo.findAndModifyBySeq(eq(3L), isNull(), update.capture(), eq(true))).thenReturn(Optional.of(modified));
+        RecipePatch patch = new RecipePatch();
+        patch.setTitle("Arepas rellenas");
+        patch.setIngredients(List.of("Queso de mano"));
+
+        assertSame(modified, service.patch(3L, patch));
+
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(Set.of("title", "ingredients", "ingredientTokens", "updatedAt"), set.keySet());
+        assertEquals(List.of("mano", "queso"), set.get("ingredientTokens"));
+        verify(repo, never()).findBySeq(any());
+        verify(repo, never()).save(any());
+        verify(listener).onSaved(modified);
+    }
+
+    @Test
+    void patch_empty_or_missing_recipe_fails() {
+        assertEquals(400, assertThrows(ApiException.class, () -> service.patch(3L, new RecipePatch())).getStatus());
+
+        RecipePatch patch = new RecipePatch();
+        patch.setTitle("Otra");
+        when(repo.findAndModifyBySeq(eq(9L), isNull(), any(), anyBoolean())).thenReturn(Optional.empty());
+        assertEquals(404, assertThrows(ApiException.class, () -> service.patch(9L, patch)).getStatus());
+    }
+
+    @Test
+    void patch_to_participant_without_season_requires_existing_season() {
+        RecipePatch patch = new RecipePatch();
+        patch.setAuthorType(AuthorType.PARTICIPANT);
+        ArgumentCaptor<Criteria> guard = ArgumentCaptor.forClass(Criteria.class);
+        when(repo.findAndModifyBySeq(eq(3L), guard.capture(), any(), eq(false))).thenReturn(Optional.empty());
+        when(repo.findBySeq(Long.valueOf(3L))).thenReturn(Optional.of(new Recipe()));
+
+        assertEquals(400, assertThrows(ApiException.class, () -> service.patch(3L, patch)).getStatus());
+        assertEquals(new Document("season", new Document("$ne", null)), guard.getValue().getCriteriaObject());
+
+        patch.setSeason(Integer.valueOf(2));
+        Recipe previous = new Recipe();
+        when(repo.findAndModifyBySeq(eq(3L), isNull(), any(), eq(false))).thenReturn(Optional.of(previous));
+        assertSame(previous, service.patch(3L, patch));
+        assertEquals(AuthorType.PARTICIPANT, previous.getAuthorType());
+    }
+
+    private static Recipe stored(long seq, long version) {
+        Recipe r = new Recipe(); r.setSeq(Long.valueOf(seq)); r.setVersion(Long.valueOf(version)); r.setTitle("Original");
+        return r;
+    }
+
+    @Test
+    void update_with_stale_if_match_fails_with_412_without_writing() {
+        when(repo.findBySeq(Long.valueOf(3L))).thenReturn(Optional.of(stored(3L, 5L)));
+
+        assertEquals(412, assertThrows(ApiException.class, () -> service.update(3L, baseInput(AuthorType.CHEF), 4L)).getStatus());
+        verify(repo, never()).save(any());
+    }
+
+    @Test
+    void update_with_if_match_and_concurrent_write_fails_with_412() {
+        when(repo.findBySeq(Long.valueOf(3L))).thenAnswer(a -> Optional.of(stored(3L, 5L)));
+        when(repo.save(any())).thenThrow(new OptimisticLockingFailureException("version changed"));
+
+        assertEquals(412, assertThrows(ApiException.class, () -> service.update(3L, baseInput(AuthorType.CHEF), 5L)).getStatus());
+        verify(repo, times(1)).save(any());
+    }
+
+    @Test
+    void update_without_if_match_retries_conflicts_then_409() {
+        service = new RecipeService(repo, sequence, List.of(), RecipeCache.disabled(), RecipeStatsService.disabled(), 2);
+        when(repo.findBySeq(Long.valueOf(3L))).thenAnswer(a -> Optional.of(stored(3L, 5L)));
+        when(repo.save(any())).thenThrow(new OptimisticLockingFailureException("version changed"))
+                .thenAnswer(a -> a.getArgument(0));
+
+        assertEquals("Arepas", service.update(3L, baseInput(AuthorType.CHEF)).getTitle());
+        verify(repo, times(2)).save(any());
+
+        reset(repo);
+        when(repo.findBySeq(Long.valueOf(3L))).thenAnswer(a -> Optional.of(stored(3L, 5L)));
+        when(repo.save(any())).thenThrow(new OptimisticLockingFailureException("version changed"));
+        assertEquals(409, assertThrows(ApiException.class, () -> service.update(3L, baseInput(AuthorType.CHEF))).getStatus());
+        verify(repo, times(3)).save(any());
+    }
+
+    @Test
+    void patch_increments_version_and_honors_if_match() {
+        ArgumentCaptor<Criteria> guard = ArgumentCaptor.forClass(Criteria.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        when(repo.findAndModifyBySeq(eq(3L), guard.capture(), update.capture(), anyBoolean())).thenReturn(Optional.empty());
+        when(repo.findBySeq(Long.valueOf(3L))).thenReturn(Optional.of(stored(3L, 6L)));
+        RecipePatch patch = new RecipePatch();
+        patch.setTitle("Nuevo");
+
+        assertEquals(412, assertThrows(ApiException.class, () -> service.patch(3L, patch, 5L)).getStatus());
+        assertEquals(new Document("version", 5L), guard.getValue().getCriteriaObject());
+        assertEquals(new Document("version", 1), update.getValue().getUpdateObject().get("$inc"));
+
+        // Cambia la clasificación: la versión va en el mismo filtro que la regla de season
+        patch.setAuthorType(AuthorType.PARTICIPANT);
+        assertEquals(412, assertThrows(ApiException.class, () -> service.patch(3L, patch, 5L)).getStatus());
+        assertEquals(2, ((List<?>) guard.getValue().getCriteriaObject().get("$and")).size());
+    }
+
+    @Test
+    void delete_with_if_match_uses_version_in_the_filter() {
+        when(repo.deleteBySeqAndVersion(Long.valueOf(3L), Long.valueOf(5L))).thenReturn(Optional.of(stored(3L, 5L))).thenReturn(Optional.empty());
+        service.delete(3L, 5L);
+        verify(repo, never()).deleteBySeq(any());
+
+        when(repo.existsBySeq(Long.valueOf(3L))).thenReturn(true, false);
+        assertEquals(412, assertThrows(ApiException.class, () -> service.delete(3L, 5L)).getStatus());
+        assertEquals(404, assertThrows(ApiException.class, () -> service.delete(3L, 5L)).getStatus());
+    }
+
+    private static Recipe classified(long seq, long version, AuthorType type, Integer season) {
+        Recipe r = stored(seq, version); r.setAuthorType(type); r.setSeason(season);
+        return r;
+    }
+
+    private static Document inc(RecipeStatsService.Delta delta) {
+        return (Document) delta.toUpdate().getUpdateObject().get("$inc");
+    }
+
+    @Test
+    void writes_apply_their_difference_to_the_stats() {
+        RecipeStatsService stats = mock(RecipeStatsService.class);
+        service = new RecipeService(repo, sequence, List.of(), RecipeCache.disabled(), stats, 2);
+        ArgumentCaptor<RecipeStatsService.Delta> delta = ArgumentCaptor.forClass(RecipeStatsService.Delta.class);
+        when(sequence.getNextSequence("recipes")).thenReturn(Long.valueOf(3L));
+        when(repo.save(any())).thenAnswer(a -> a.getArgument(0));
+        RecipeInput in = baseInput(AuthorType.PARTICIPANT);
+        in.setSeason(Integer.valueOf(2));
+        service.create(in);
+        verify(stats).apply(delta.capture());
+        assertEquals(new Document("bySeason.2", 1L).append("byAuthorType.PARTICIPANT", 1L).append("total", 1L), inc(delta.getValue()));
+
+        when(repo.findBySeq(Long.valueOf(3L))).thenAnswer(a -> Optional.of(classified(3L, 0L, AuthorType.PARTICIPANT, 2)));
+        service.update(3L, baseInput(AuthorType.CHEF));
+        verify(stats, times(2)).apply(delta.capture());
+        assertEquals(new Document("byAuthorType.CHEF", 1L).append("byAuthorType.PARTICIPANT", -1L).append("bySeason.2", -1L), inc(delta.getValue()));
+
+        when(repo.deleteBySeq(Long.valueOf(3L))).thenReturn(Optional.of(classified(3L, 1L, AuthorType.CHEF, null)));
+        service.delete(3L);
+        verify(stats, times(3)).apply(delta.capture());
+        assertEquals(new Document("byAuthorType.CHEF", -1L).append("total", -1L), inc(delta.getValue()));
+    }
+
+    @Test
+    void patch_reclassifying_takes_the_stats_difference_from_the_previous_document() {
+        RecipeStatsService stats = mock(RecipeStatsService.class);
+        service = new RecipeService(repo, sequence, List.of(), RecipeCache.disabled(), stats, 2);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        when(repo.findAndModifyBySeq(eq(3L), isNull(), update.capture(), eq(false))).thenReturn(Optional.of(classified(3L, 4L, AuthorType.PARTICIPANT, 1)));
+        RecipePatch patch = new RecipePatch();
+        patch.setSeason(Integer.valueOf(2));
+
+        Recipe patched = service.patch(3L, patch);
+
+        assertEquals(Integer.valueOf(2), patched.getSeason());
+        assertEquals(Long.valueOf(5L), patched.getVersion());
+        assertEquals("Original", patched.getTitle());
+        assertEquals(((Document) update.getValue().getUpdateObject().get("$set")).get("updatedAt"), patched.getUpdatedAt());
+        ArgumentCaptor<RecipeStatsService.Delta> delta = ArgumentCaptor.forClass(RecipeStatsService.Delta.class);
+        verify(stats).apply(delta.capture());
+        assertEquals(new Document("bySeason.1", -1L).append("bySeason.2", 1L), inc(delta.getValue()));
+        verify(repo, never()).findBySeq(any());
     }
 }
@@ -0,0 +1,99 @@
+package dows.masterchef.service;
+
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.model.RecipeStats;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RecipeStatsServiceTest {
+
+    private MongoOperations mongo;
+    private RecipeStatsService service;
+
+    @BeforeEach
+    void setup() {
+        mongo = mock(MongoOperations.class);
+        service = new RecipeStatsService(mongo);
+    }
+
+    @Test
+    void apply_upserts_one_inc_and_skips_differences_that_cancel_out() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        service.apply(new RecipeStatsService.Delta().add(AuthorType.PARTICIPANT, 4).add(AuthorType.VIEWER, 4).add(AuthorType.VIEWER, null));
+
+        verify(mongo).upsert(eq(new Query(org.springframework.data.mongodb.core.query.Criteria.where("_id").is("recipes"))), update.capture(), eq(RecipeStats.class));
+        assertEquals(new Document("byAuthorType.PARTICIPANT", 1L).append("byAuthorType.VIEWER", 2L).append("bySeason.4", 1L).append("total", 3L),
+                update.getValue().getUpdateObject().get("$inc"));
+
+        Recipe r = new Recipe(); r.setAuthorType(AuthorType.CHEF); r.setTitle("Otro");
+        service.apply(RecipeStatsService.Delta.changed(r, r));
+        verifyNoMoreInteractions(mongo);
+    }
+
+    @Test
+    void disabled_discards_differences() {
+        RecipeStatsService.disabled().apply(new RecipeStatsService.Delta().add(AuthorType.CHEF, null));
+        verifyNoInteractions(mongo);
+    }
+
+    @Test
+    void stats_reads_one_document_without_zero_counters_and_seasons_in_numeric_order() {
+        RecipeStats stored = new RecipeStats("recipes");
+        stored.setTotal(5);
+        Map<String, Long> bySeason = new LinkedHashMap<>();
+        bySeason.put("10", 2L); bySeason.put("2", 3L); bySeason.put("7", 0L);
+        stored.setBySeason(bySeason);
+        stored.setByAuthorType(new LinkedHashMap<>(Map.of("VIEWER", 0L, "PARTICIPANT", 5L)));
+        when(mongo.findById("recipes", RecipeStats.class)).thenReturn(stored);
+
+        RecipeStats stats = service.stats();
+
+        assertEquals(5, stats.getTotal());
+        assertEquals(List.of("2", "10"), List.copyOf(stats.getBySeason().keySet()));
+        assertEquals(Map.of("PARTICIPANT", 5L), stats.getByAuthorType());
+    }
+
+    @Test
+    void stats_before_the_first_write_is_empty() {
+        RecipeStats stats = service.stats();
+        assertEquals(0, stats.getTotal());
+        assertTrue(stats.getBySeason().isEmpty());
+    }
+
+    @Test
+    void reconcile_rebuilds_the_document_from_one_facet_aggregation() {
+        Document facets = new Document("byAuthorType", List.of(new Document("_id", "PARTICIPANT").append("count", 3),
+                new Document("_id", "CHEF").append("count", 1), new Document("_id", null).append("count", 1)))
+                .append("bySeason", List.of(new Document("_id", 2).append("count", 2), new Document("_id", 1).append("count", 1)));
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        when(mongo.aggregate(aggregation.capture(), eq(Recipe.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(facets), new Document()));
+        when(mongo.save(any(RecipeStats.class))).thenAnswer(a -> a.getArgument(0));
+
+        RecipeStats stats = service.reconcile();
+
+        assertEquals(5, stats.getTotal());
+        assertEquals(Map.of("PARTICIPANT", 3L, "CHEF", 1L), stats.getByAuthorType());
+        assertEquals(List.of("1", "2"), List.copyOf(stats.getBySeason().keySet()));
+        assertNotNull(stats.getReconciledAt());
+        assertEquals("recipes", stats.getId());
+        assertTrue(aggregation.getValue().toString().contains("$facet"));
+    }
+}
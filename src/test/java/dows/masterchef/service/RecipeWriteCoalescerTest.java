@@ -0,0 +1,171 @@
+package dows.masterchef.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import dows.masterchef.exception.ApiException;
+import dows.masterchef.model.AuthorType;
+import dows.masterchef.model.Recipe;
+import dows.masterchef.repository.RecipeRepository;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecipeWriteCoalescerTest {
+
+    private RecipeRepository repo;
+    private SequenceService sequence;
+    private RecipeStatsService stats;
+    private RecipeWriteCoalescer coalescer;
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+
+    @BeforeEach
+    void setup() {
+        repo = mock(RecipeRepository.class);
+        sequence = mock(SequenceService.class);
+        stats = mock(RecipeStatsService.class);
+        when(repo.insertUnordered(anyList())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) { coalescer.close(); }
+        callers.shutdownNow();
+    }
+
+    private static Recipe recipe(String title, AuthorType type) {
+        Recipe r = new Recipe();
+        r.setTitle(title);
+        r.setAuthorType(type);
+        return r;
+    }
+
+    private List<CompletableFuture<Recipe>> submit(List<Recipe> recipes) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Recipe>> out = new ArrayList<>();
+        for (Recipe r : recipes) {
+            out.add(CompletableFuture.supplyAsync(() -> {
+                try { start.await(); } catch (InterruptedException ex) { throw new IllegalStateException(ex); }
+                return coalescer.insert(r);
+            }, callers));
+        }
+        start.countDown();
+        return out;
+    }
+
+    @Test
+    void concurrent_creates_share_one_reserve_one_insert_and_one_stats_update() throws Exception {
+        // Un lote lleno de 4 sale sin esperar al plazo, que aquí es muy largo
+        coalescer = new RecipeWriteCoalescer(repo, sequence, stats, true, 4, Duration.ofSeconds(30), 1, Duration.ofSeconds(5));
+        when(sequence.reserve("recipes", 4)).thenReturn(Long.valueOf(14L));
+        List<Recipe> recipes = List.of(recipe("a", AuthorType.VIEWER), recipe("b", AuthorType.VIEWER), recipe("c", AuthorType.CHEF), recipe("d", AuthorType.VIEWER));
+
+        List<Long> seqs = new ArrayList<>();
+        for (CompletableFuture<Recipe> f : submit(recipes)) { seqs.add(f.get(5, TimeUnit.SECONDS).getSeq()); }
+
+        assertEquals(List.of(11L, 12L, 13L, 14L), seqs.stream().sorted().toList());
+        verify(sequence, times(1)).reserve("recipes", 4);
+        verify(repo, times(1)).insertUnordered(argThat(l -> l.size() == 4 && l.stream().allMatch(r -> r.getVersion() == 0L && r.getCreatedAt() != null)));
+        ArgumentCaptor<RecipeStatsService.Delta> delta = ArgumentCaptor.forClass(RecipeStatsService.Delta.class);
+        verify(stats, times(1)).apply(delta.capture());
+        assertEquals(new Document("total", 4L).append("byAuthorType.CHEF", 1L).append("byAuthorType.VIEWER", 3L),
+                delta.getValue().toUpdate().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    void a_lone_create_is_written_after_max_delay() {
+        coalescer = new RecipeWriteCoalescer(repo, sequence, stats, true, 64, Duration.ofMillis(5), 2, Duration.ofSeconds(5));
+        when(sequence.reserve("recipes", 1)).thenReturn(Long.valueOf(3L));
+
+        assertEquals(3L, coalescer.insert(recipe("a", AuthorType.VIEWER)).getSeq());
+        verify(repo).insertUnordered(argThat(l -> l.size() == 1));
+    }
+
+    @Test
+    void insert_errors_fail_only_their_caller() throws Exception {
+        coalescer = new RecipeWriteCoalescer(repo, sequence, stats, true, 2, Duration.ofSeconds(30), 1, Duration.ofSeconds(5));
+        when(sequence.reserve("recipes", 2)).thenReturn(Long.valueOf(2L));
+        when(repo.insertUnordered(anyList())).thenAnswer(a -> {
+            List<Recipe> batch = a.getArgument(0);
+            int bad = batch.get(0).getTitle().equals("dup") ? 0 : 1;
+            return List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), bad));
+        });
+
+        List<CompletableFuture<Recipe>> futures = submit(List.of(recipe("ok", AuthorType.VIEWER), recipe("dup", AuthorType.VIEWER)));
+        int created = 0;
+        for (CompletableFuture<Recipe> f : futures) {
+            try {
+                assertEquals("ok", f.get(5, TimeUnit.SECONDS).getTitle());
+                created++;
+            } catch (java.util.concurrent.ExecutionException ex) {
+                assertEquals(409, ((ApiException) ex.getCause()).getStatus());
+            }
+        }
+        assertEquals(1, created);
+        ArgumentCaptor<RecipeStatsService.Delta> delta = ArgumentCaptor.forClass(RecipeStatsService.Delta.class);
+        verify(stats).apply(delta.capture());
+        assertEquals(1L, ((Document) delta.getValue().toUpdate().getUpdateObject().get("$inc")).get("total"));
+    }
+
+    @Test
+    void a_failed_batch_fails_every_caller_and_stats_errors_do_not() {
+        coalescer = new RecipeWriteCoalescer(repo, sequence, stats, true, 8, Duration.ofMillis(1), 1, Duration.ofSeconds(5));
+        when(sequence.reserve(eq("recipes"), anyLong())).thenThrow(new DataAccessResourceFailureException("mongo down")).thenReturn(Long.valueOf(1L));
+        doThrow(new DataAccessResourceFailureException("stats down")).when(stats).apply(any());
+
+        assertThrows(DataAccessResourceFailureException.class, () -> coalescer.insert(recipe("a", AuthorType.VIEWER)));
+        assertEquals(1L, coalescer.insert(recipe("b", AuthorType.VIEWER)).getSeq());
+    }
+
+    @Test
+    void an_error_in_a_batch_fails_its_callers_and_the_flusher_keeps_running() {
+        coalescer = new RecipeWriteCoalescer(repo, sequence, stats, true, 8, Duration.ofMillis(1), 1, Duration.ofSeconds(5));
+        when(sequence.reserve(eq("recipes"), anyLong())).thenReturn(Long.valueOf(1L), Long.valueOf(2L));
+        when(repo.insertUnordered(anyList())).thenThrow(new NoClassDefFoundError("com/mongodb/Missing")).thenReturn(List.of());
+
+        CompletionException ex = assertThrows(CompletionException.class, () -> coalescer.insert(recipe("a", AuthorType.VIEWER)));
+        assertInstanceOf(NoClassDefFoundError.class, ex.getCause());
+        assertEquals(2L, coalescer.insert(recipe("b", AuthorType.VIEWER)).getSeq());
+    }
+
+    @Test
+    void a_stuck_batch_answers_503_after_the_timeout() {
+        coalescer = new RecipeWriteCoalescer(repo, sequence, stats, true, 8, Duration.ofMillis(1), 1, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        when(sequence.reserve(eq("recipes"), anyLong())).thenAnswer(a -> { release.await(); return Long.valueOf(1L); });
+        try {
+            assertEquals(503, assertThrows(ApiException.class, () -> coalescer.insert(recipe("a", AuthorType.VIEWER))).getStatus());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void disabled_and_closed_coalescers_reject_writes() {
+        RecipeWriteCoalescer disabled = RecipeWriteCoalescer.disabled();
+        assertFalse(disabled.isEnabled());
+        assertEquals(503, assertThrows(ApiException.class, () -> disabled.insert(new Recipe())).getStatus());
+
+        coalescer = new RecipeWriteCoalescer(repo, sequence, stats, true, 8, Duration.ofMillis(1), 1, Duration.ofSeconds(5));
+        assertTrue(coalescer.isEnabled());
+        coalescer.close();
+        assertEquals(503, assertThrows(ApiException.class, () -> coalescer.insert(new Recipe())).getStatus());
+        assertThrows(IllegalArgumentException.class, () -> new RecipeWriteCoalescer(repo, sequence, stats, true, 0, Duration.ZERO, 1, Duration.ZERO));
+    }
+}
@@ -269,4 +269,86 @@ class SequenceServiceTest {
                 eq(Counter.class)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void getNextSequence_GapFree_ShouldIncrementCounterByOne() {
+        // Arrange
+        when(mongoOperations.findAndModify(
+                any(Query.class),
+                argThat((Update update) -> update.getUpdateObject().toJson().contains("\"seq\": 1")),
+                any(FindAndModifyOptions.class),
+                eq(Counter.class)
+        )).thenReturn(new Counter("recipes", 8L));
+
+        // Act & Assert
+        assertEquals(8L, sequenceService.getNextSequence("recipes"));
+    }
+
+    @Test
+    void getNextSequence_Block_ShouldReserveOnceAndServeLocally() {
+        // Arrange
+        SequenceService block = new SequenceService(mongoOperations, SequenceService.Strategy.BLOCK, 3);
+        when(mongoOperations.findAndModify(
+                any(Query.class),
+                any(Update.class),
+                any(FindAndModifyOptions.class),
+                eq(Counter.class)
+        )).thenReturn(new Counter("recipes", 3L), new Counter("recipes", 6L));
+
+        // Act & Assert
+        assertEquals(1L, block.getNextSequence("recipes"));
+        assertEquals(2L, block.getNextSequence("recipes"));
+        assertEquals(3L, block.getNextSequence("recipes"));
+        verify(mongoOperations, times(1)).findAndModify(
+                any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Counter.class));
+        assertEquals(4L, block.getNextSequence("recipes"));
+        verify(mongoOperations, times(2)).findAndModify(
+                any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Counter.class));
+    }
+
+    @Test
+    void getNextSequence_Block_ConcurrentCallers_ShouldGetUniqueValues() throws Exception {
+        // Arrange: el contador simula el $inc atómico de Mongo
+        java.util.concurrent.atomic.AtomicLong counter = new java.util.concurrent.atomic.AtomicLong();
+        SequenceService block = new SequenceService(mongoOperations, SequenceService.Strategy.BLOCK, 10);
+        when(mongoOperations.findAndModify(
+                any(Query.class),
+                any(Update.class),
+                any(FindAndModifyOptions.class),
+                eq(Counter.class)
+        )).thenAnswer(a -> new Counter("recipes", counter.addAndGet(10)));
+
+        // Act
+        java.util.Set<Long> seen = java.util.concurrent.ConcurrentHashMap.newKeySet();
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            pool.submit(() -> seen.add(block.getNextSequence("recipes")));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, java.util.concurrent.TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(1000, seen.size());
+        assertEquals(1000L, counter.get()); // 100 reservas de 10, ningún bloque desperdiciado
+    }
+
+    @Test
+    void reserve_ShouldIncrementByCountInOneCall() {
+        // Arrange
+        when(mongoOperations.findAndModify(
+                any(Query.class),
+                argThat((Update update) -> update.getUpdateObject().toJson().contains("\"seq\": 25")),
+                any(FindAndModifyOptions.class),
+                eq(Counter.class)
+        )).thenReturn(new Counter("recipes", 125L));
+
+        // Act & Assert
+        assertEquals(125L, sequenceService.reserve("recipes", 25));
+    }
+
+    @Test
+    void constructor_WithInvalidBlockSize_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SequenceService(mongoOperations, SequenceService.Strategy.BLOCK, 0));
+    }
+}